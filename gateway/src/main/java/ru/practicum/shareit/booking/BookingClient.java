@@ -1,17 +1,25 @@
 package ru.practicum.shareit.booking;
 
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingImportDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
@@ -29,11 +37,10 @@ public class BookingClient extends BaseClient {
         );
     }
 
-    public ResponseEntity<Object> getUserBookings(long userId, BookingState state) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name()
-        );
-        return get("?state={state}", userId, parameters);
+    public ResponseEntity<Object> getUserBookings(long userId, BookingState state, String cursor, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        return get("?state={state}" + pageQuery(parameters, cursor, size), userId, parameters);
     }
 
 
@@ -46,12 +53,46 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, new BookingDto());
     }
 
-    public ResponseEntity<Object> getBooking(long userId, Long bookingId) {
-        return get("/" + bookingId, userId);
+    public ResponseEntity<Object> confirmBookings(long userId, List<BookingApprovalDto> approvals) {
+        return patch("/batch", userId, approvals);
+    }
+
+    public ResponseEntity<Object> importBookings(long userId, List<BookingImportDto> bookings) {
+        return post("/import", userId, bookings);
+    }
+
+    public ResponseEntity<Object> getBooking(long userId, Long bookingId, String ifNoneMatch) {
+        return getIfNoneMatch("/" + bookingId, userId, ifNoneMatch);
+    }
+
+    public ResponseEntity<Object> getBookingsByOwner(long userId, BookingState state, String cursor, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state.name());
+        return get("/owner?state={state}" + pageQuery(parameters, cursor, size), userId, parameters);
+    }
+
+    public ResponseEntity<Object> getUserBookingCounts(long userId) {
+        return get("/counts", userId);
+    }
+
+    public ResponseEntity<Object> getOwnerBookingCounts(long userId) {
+        return get("/owner/counts", userId);
+    }
+
+    public void exportUserBookings(long userId, HttpServletResponse response) throws IOException {
+        stream("/export", userId, MediaType.APPLICATION_NDJSON, response);
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(long userId, String state) {
-        Map<String, Object> parameters = Map.of("state", state);
-        return get("/owner?state={state}", userId, parameters);
+    private String pageQuery(Map<String, Object> parameters, String cursor, Integer size) {
+        StringBuilder query = new StringBuilder();
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            query.append("&cursor={cursor}");
+        }
+        if (size != null) {
+            parameters.put("size", size);
+            query.append("&size={size}");
+        }
+        return query.toString();
     }
 }
@@ -1,17 +1,28 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingImportDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.exceptions.BadRequestException;
 
+import java.io.IOException;
+import java.util.List;
+
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -19,15 +30,21 @@ import ru.practicum.shareit.exceptions.BadRequestException;
 @Slf4j
 @Validated
 public class BookingController {
+    private static final long MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_IMPORT_SIZE = 50_000;
+
     private final BookingClient bookingClient;
 
     @GetMapping
     public ResponseEntity<Object> getUserBookings(@RequestHeader("X-Sharer-User-Id") long userId,
-                                              @RequestParam(name = "state", defaultValue = "all") String stateParam) {
+                                              @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer size) {
         BookingState state = BookingState.from(stateParam)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
-        log.info("Get booking with state {}, userId={}", stateParam, userId);
-        return bookingClient.getUserBookings(userId, state);
+        log.info("Get booking with state {}, userId={}, cursor={}, size={}", stateParam, userId, cursor, size);
+        return bookingClient.getUserBookings(userId, state, cursor, size);
     }
 
     @PostMapping
@@ -48,22 +65,61 @@ public class BookingController {
         return bookingClient.confirmBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public ResponseEntity<Object> confirmBookings(@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                                  List<@Valid BookingApprovalDto> approvals,
+                                                  @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Approving {} bookings, userId={}", approvals.size(), userId);
+        return bookingClient.confirmBookings(userId, approvals);
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<Object> importBookings(@RequestBody @NotEmpty @Size(max = MAX_IMPORT_SIZE)
+                                                 List<@Valid BookingImportDto> bookings,
+                                                 @RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Importing {} bookings, userId={}", bookings.size(), userId);
+        return bookingClient.importBookings(userId, bookings);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable Long bookingId) {
+                                             @PathVariable Long bookingId,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                             String ifNoneMatch) {
         log.info("Get booking {}, userId={}", bookingId, userId);
-        return bookingClient.getBooking(userId, bookingId);
+        return bookingClient.getBooking(userId, bookingId, ifNoneMatch);
     }
 
 
     @GetMapping("/owner")
     public ResponseEntity<Object> getBookingsByOwner(
             @RequestParam(required = false) String state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer size,
             @RequestHeader("X-Sharer-User-Id") Long userId) {
         BookingState bookingState = BookingState.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        log.info("Get booking with state {}, userId={}", state, userId);
-        return bookingClient.getBookingsByOwner(userId, state);
+        log.info("Get booking with state {}, userId={}, cursor={}, size={}", state, userId, cursor, size);
+        return bookingClient.getBookingsByOwner(userId, bookingState, cursor, size);
+    }
+
+    @GetMapping("/counts")
+    public ResponseEntity<Object> getUserBookingCounts(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Get booking counts, userId={}", userId);
+        return bookingClient.getUserBookingCounts(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public ResponseEntity<Object> getOwnerBookingCounts(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Get owner booking counts, userId={}", userId);
+        return bookingClient.getOwnerBookingCounts(userId);
+    }
+
+    @GetMapping("/export")
+    public void exportUserBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                   HttpServletResponse response) throws IOException {
+        log.info("Export booking history, userId={}", userId);
+        bookingClient.exportUserBookings(userId, response);
     }
 
     private void validateDates(BookItemRequestDto booking) {
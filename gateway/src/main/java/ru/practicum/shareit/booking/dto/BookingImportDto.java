@@ -0,0 +1,29 @@
+package ru.practicum.shareit.booking.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingImportDto {
+    @NotNull
+    private Long itemId;
+
+    @NotNull
+    private Long bookerId;
+
+    @NotNull
+    private LocalDateTime start;
+
+    @NotNull
+    private LocalDateTime end;
+
+    @Pattern(regexp = "WAITING|APPROVED|REJECTED|CANCELED")
+    private String status;
+}
@@ -1,17 +1,22 @@
 package ru.practicum.shareit.client;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 public class BaseClient {
     protected final RestTemplate rest;
 
@@ -31,6 +36,14 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    protected ResponseEntity<Object> getIfNoneMatch(String path, Long userId, @Nullable String ifNoneMatch) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return exchange(HttpMethod.GET, path, new HttpEntity<>(headers), null);
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -79,9 +92,29 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    protected void stream(String path, long userId, MediaType mediaType, HttpServletResponse response) throws IOException {
+        try {
+            rest.execute(path, HttpMethod.GET, request -> {
+                request.getHeaders().setAccept(List.of(mediaType));
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            }, shareitServerResponse -> {
+                response.setStatus(shareitServerResponse.getStatusCode().value());
+                response.setContentType(mediaType.toString());
+                StreamUtils.copy(shareitServerResponse.getBody(), response.getOutputStream());
+                return null;
+            });
+        } catch (HttpStatusCodeException e) {
+            response.setStatus(e.getStatusCode().value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(e.getResponseBodyAsByteArray());
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        return exchange(method, path, new HttpEntity<>(body, defaultHeaders(userId)), parameters);
+    }
 
+    private <T> ResponseEntity<Object> exchange(HttpMethod method, String path, HttpEntity<T> requestEntity, @Nullable Map<String, Object> parameters) {
         ResponseEntity<Object> shareitServerResponse;
         try {
             if (parameters != null) {
@@ -111,6 +144,9 @@ public class BaseClient {
         }
 
         ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && response.getHeaders().getETag() != null) {
+            responseBuilder.eTag(response.getHeaders().getETag());
+        }
 
         if (response.hasBody()) {
             return responseBuilder.body(response.getBody());
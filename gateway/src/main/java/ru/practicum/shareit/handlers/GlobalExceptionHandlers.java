@@ -1,5 +1,6 @@
 package ru.practicum.shareit.handlers;
 
+import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -14,4 +15,10 @@ public class GlobalExceptionHandlers {
     public Error handleBadRequestException(BadRequestException e) {
         return new Error("Bad request", e.getMessage());
     }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Error handleConstraintViolationException(ConstraintViolationException e) {
+        return new Error("Bad request", e.getMessage());
+    }
 }
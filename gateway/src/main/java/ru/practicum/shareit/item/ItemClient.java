@@ -12,6 +12,8 @@ import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.NewItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemRequest;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -41,18 +43,58 @@ public class ItemClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getItem(Long itemId) {
-        return get("/" + itemId);
+    public ResponseEntity<Object> getItem(Long itemId, String ifNoneMatch) {
+        return getIfNoneMatch("/" + itemId, null, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> searchItems(String text) {
+    public ResponseEntity<Object> searchItems(String text, LocalDateTime from, LocalDateTime to,
+                                              Integer offset, Integer size, boolean fuzzy) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        StringBuilder query = new StringBuilder("/search?text={text}");
+        addParameter(query, parameters, "from", from);
+        addParameter(query, parameters, "to", to);
+        addParameter(query, parameters, "offset", offset);
+        addParameter(query, parameters, "size", size);
+        if (fuzzy) {
+            addParameter(query, parameters, "fuzzy", true);
+        }
+        return get(query.toString(), null, parameters);
+    }
+
+    public ResponseEntity<Object> suggestNames(String prefix, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("prefix", prefix);
+        StringBuilder query = new StringBuilder("/suggest?prefix={prefix}");
+        addParameter(query, parameters, "size", size);
+        return get(query.toString(), null, parameters);
+    }
+
+    public ResponseEntity<Object> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
         Map<String, Object> parameters = Map.of(
-                "text", text
+                "from", from,
+                "to", to
         );
-        return get("/search?text={text}", null, parameters);
+        return get("/" + itemId + "/availability?from={from}&to={to}", null, parameters);
     }
 
     public ResponseEntity<Object> addComment(Long itemId, CommentRequestDto commentDto, Long userId) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
+
+    public ResponseEntity<Object> getComments(Long itemId, String cursor, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder query = new StringBuilder();
+        addParameter(query, parameters, "cursor", cursor);
+        addParameter(query, parameters, "size", size);
+        String path = "/" + itemId + "/comments" + (query.isEmpty() ? "" : "?" + query.substring(1));
+        return get(path, null, parameters);
+    }
+
+    private void addParameter(StringBuilder query, Map<String, Object> parameters, String name, Object value) {
+        if (value != null) {
+            parameters.put(name, value);
+            query.append('&').append(name).append("={").append(name).append('}');
+        }
+    }
 }
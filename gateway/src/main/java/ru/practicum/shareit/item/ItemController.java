@@ -1,15 +1,23 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.NewItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 
 
@@ -19,6 +27,9 @@ import java.util.Collections;
 @Slf4j
 @Validated
 public class ItemController {
+    private static final long MAX_PAGE_SIZE = 100;
+    private static final long MAX_SUGGEST_SIZE = 20;
+    private static final long MAX_SEARCH_OFFSET = 1000;
 
     private final ItemClient itemClient;
 
@@ -49,18 +60,48 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItem(@PathVariable Long itemId) {
+    public ResponseEntity<Object> getItem(@PathVariable Long itemId,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                          String ifNoneMatch) {
         log.debug("GET/items/id: returning item {}", itemId);
-        return itemClient.getItem(itemId);
+        return itemClient.getItem(itemId, ifNoneMatch);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.debug("GET/items/id/availability: free intervals of item {} from {} to {}", itemId, from, to);
+        validateWindow(from, to);
+        return itemClient.getAvailability(itemId, from, to);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestNames(@RequestParam @NotBlank String prefix,
+                                               @RequestParam(required = false) @Positive @Max(MAX_SUGGEST_SIZE)
+                                               Integer size) {
+        log.debug("GET/items/suggest: {} item names starting with {}", size, prefix);
+        return itemClient.suggestNames(prefix, size);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestParam String text) {
-        log.debug("GET/items: all items of the containing text {}", text);
+    public ResponseEntity<Object> searchItems(
+            @RequestParam String text,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @PositiveOrZero @Max(MAX_SEARCH_OFFSET) Integer offset,
+            @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer size,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        log.debug("GET/items: items containing text {} free from {} to {}, offset {}, size {}, fuzzy {}",
+                text, from, to, offset, size, fuzzy);
+        if (from != null || to != null) {
+            validateWindow(from, to);
+        }
         if (text == null || text.isBlank()) {
             return ResponseEntity.ok(Collections.emptyList());
         }
-        return itemClient.searchItems(text);
+        return itemClient.searchItems(text, from, to, offset, size, fuzzy);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -70,4 +111,19 @@ public class ItemController {
             @RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemClient.addComment(itemId, commentDto, userId);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Positive @Max(MAX_PAGE_SIZE) Integer size) {
+        log.debug("GET/items/id/comments: page of {} comments of item {} after cursor {}", size, itemId, cursor);
+        return itemClient.getComments(itemId, cursor, size);
+    }
+
+    private void validateWindow(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new BadRequestException("The start of the window " + from + " should be before its end " + to);
+        }
+    }
 }
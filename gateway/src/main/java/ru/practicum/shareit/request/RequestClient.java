@@ -36,8 +36,8 @@ public class RequestClient extends BaseClient {
         return get("/all", userId);
     }
 
-    public ResponseEntity<Object> getRequest(Long requestId) {
-        return get("/" + requestId);
+    public ResponseEntity<Object> getRequest(Long requestId, String ifNoneMatch) {
+        return getIfNoneMatch("/" + requestId, null, ifNoneMatch);
     }
 
 }
@@ -3,25 +3,50 @@ package ru.practicum.shareit.booking.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Window;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingImportDto;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.http.ETags;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.user.service.UserService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 
 @Slf4j
 @RestController
 @RequestMapping("/bookings")
 public class BookingController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private final BookingService bookingService;
+    private final UserService userService;
+    private final ObjectWriter bookingWriter;
 
     @Autowired
-    public BookingController(@Qualifier("bookingServiceImpl") BookingService bookingService) {
+    public BookingController(@Qualifier("bookingServiceImpl") BookingService bookingService,
+                             @Qualifier("userServiceImpl") UserService userService,
+                             ObjectMapper objectMapper) {
         this.bookingService = bookingService;
+        this.userService = userService;
+        this.bookingWriter = objectMapper.writerFor(BookingDto.class);
     }
 
     @PostMapping
@@ -58,29 +83,109 @@ public class BookingController {
         return bookingDtoStored;
     }
 
-    @GetMapping("/{bookingId}")
+    @PatchMapping("/batch")
     @ResponseStatus(HttpStatus.OK)
-    public BookingDto getBooking(@PathVariable Long bookingId,
-                              @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public List<BookingApprovalResultDto> confirmBookings(@RequestBody List<BookingApprovalDto> approvals,
+                                                          @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("PATCH/bookings/batch - confirming {} bookings by user {}", approvals.size(), userId);
+        List<BookingApprovalResultDto> results = bookingService.confirmBookings(approvals, userId);
+        log.debug("PATCH/bookings/batch: the process was completed. {} of {} bookings were confirmed by user {}",
+                results.stream().filter(result -> result.getError() == null).count(),
+                approvals.size(),
+                userId);
+        return results;
+    }
+
+    @PostMapping("/import")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, Integer> importBookings(@RequestBody List<BookingImportDto> bookings,
+                                               @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("POST/bookings/import - importing {} bookings by user {}", bookings.size(), userId);
+        int imported = bookingService.importBookings(bookings, userId);
+        log.debug("POST/bookings/import: the process was completed successfully. {} bookings were imported by user {}",
+                imported,
+                userId);
+        return Map.of("imported", imported);
+    }
+
+    @GetMapping("/{bookingId}")
+    public ResponseEntity<BookingDto> getBooking(@PathVariable Long bookingId,
+                                                 @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @RequestHeader HttpHeaders headers) {
         log.debug("GET/bookings/id: returning booking {} requsted by {}", bookingId, userId);
-        return bookingService.getBooking(bookingId, userId);
+        return ETags.respond(headers, bookingService.getBookingVersion(bookingId, userId),
+                version -> bookingService.getBooking(bookingId, userId));
     }
 
     @GetMapping
-    public Collection<BookingDto> getUserBookings(
+    public ResponseEntity<Collection<BookingDto>> getUserBookings(
             @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             @RequestHeader("X-Sharer-User-Id") Long userId) {
         BookingState bookingState = BookingState.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        return bookingService.getUserBookings(bookingState, userId);
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(bookingService.getUserBookings(bookingState, userId));
+        }
+        log.debug("GET/bookings: returning page of {} bookings of user {} after cursor {}", size, userId, cursor);
+        return toPage(bookingService.getUserBookings(bookingState, userId, cursor, pageSize(size)));
     }
 
     @GetMapping("/owner")
-    public Collection<BookingDto> getBookingsByOwner(
+    public ResponseEntity<Collection<BookingDto>> getBookingsByOwner(
             @RequestParam(required = false) String state,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
             @RequestHeader("X-Sharer-User-Id") Long userId) {
         BookingState bookingState = BookingState.from(state)
                 .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-        return bookingService.getBookingsByOwner(bookingState, userId);
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(bookingService.getBookingsByOwner(bookingState, userId));
+        }
+        log.debug("GET/bookings/owner: returning page of {} bookings of owner {} after cursor {}", size, userId, cursor);
+        return toPage(bookingService.getBookingsByOwner(bookingState, userId, cursor, pageSize(size)));
+    }
+
+    @GetMapping("/counts")
+    public Map<BookingState, Long> getUserBookingCounts(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("GET/bookings/counts: returning booking counts of user {}", userId);
+        return bookingService.getUserBookingCounts(userId);
+    }
+
+    @GetMapping("/owner/counts")
+    public Map<BookingState, Long> getOwnerBookingCounts(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("GET/bookings/owner/counts: returning booking counts of owner {}", userId);
+        return bookingService.getOwnerBookingCounts(userId);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("GET/bookings/export: streaming booking history of user {}", userId);
+        userService.getUser(userId);
+        StreamingResponseBody body = out -> bookingService.exportUserBookings(userId, booking -> {
+            try {
+                out.write(bookingWriter.writeValueAsBytes(booking));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private int pageSize(Integer size) {
+        return size == null ? DEFAULT_PAGE_SIZE : size;
+    }
+
+    private ResponseEntity<Collection<BookingDto>> toPage(Window<BookingDto> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        String next = KeysetCursor.next(page);
+        if (next != null) {
+            response.header(KeysetCursor.HEADER, next);
+        }
+        return response.body(page.getContent());
     }
 }
@@ -5,7 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.dto.UserShortDto;
 
 import java.time.LocalDateTime;
 
@@ -22,7 +22,7 @@ public class BookingDto {
 
     private ItemDto item;
 
-    private User booker;
+    private UserShortDto booker;
 
     private BookingStatus status;
 }
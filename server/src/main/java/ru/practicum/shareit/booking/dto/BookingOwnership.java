@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.BookingStatus;
+
+public interface BookingOwnership {
+    Long getId();
+
+    BookingStatus getStatus();
+
+    Long getOwnerId();
+}
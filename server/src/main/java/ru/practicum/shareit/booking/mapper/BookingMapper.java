@@ -2,14 +2,21 @@ package ru.practicum.shareit.booking.mapper;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingImportDto;
+import ru.practicum.shareit.booking.dto.BookingStateCounts;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class BookingMapper {
     public static Booking toBooking(NewBookingDto newBookingDto) {
@@ -28,14 +35,35 @@ public class BookingMapper {
         return booking;
     }
 
+    public static Booking toBooking(BookingImportDto importDto, Item item, User booker) {
+        Booking booking = new Booking();
+        booking.setStart(importDto.getStart());
+        booking.setEnd(importDto.getEnd());
+        booking.setStatus(importDto.getStatus() == null ? BookingStatus.WAITING : importDto.getStatus());
+        booking.setItem(item);
+        booking.setBooker(booker);
+        return booking;
+    }
+
     public static BookingDto toBookingDto(Booking booking) {
         BookingDto bookingDto = new BookingDto();
         bookingDto.setId(booking.getId());
         bookingDto.setStart(booking.getStart());
         bookingDto.setEnd(booking.getEnd());
         bookingDto.setItem(ItemMapper.toItemDto(booking.getItem()));
-        bookingDto.setBooker(booking.getBooker());
+        bookingDto.setBooker(UserMapper.toUserShortDto(booking.getBooker()));
         bookingDto.setStatus(booking.getStatus());
         return bookingDto;
     }
+
+    public static Map<BookingState, Long> toStateCounts(BookingStateCounts counts) {
+        Map<BookingState, Long> result = new EnumMap<>(BookingState.class);
+        result.put(BookingState.ALL, counts.getAllCount());
+        result.put(BookingState.CURRENT, counts.getCurrentCount());
+        result.put(BookingState.PAST, counts.getPastCount());
+        result.put(BookingState.FUTURE, counts.getFutureCount());
+        result.put(BookingState.WAITING, counts.getWaitingCount());
+        result.put(BookingState.REJECTED, counts.getRejectedCount());
+        return result;
+    }
 }
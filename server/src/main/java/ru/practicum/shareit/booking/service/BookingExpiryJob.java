@@ -0,0 +1,85 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cancels WAITING bookings whose start date has passed without an answer from the owner.
+ * Rows are updated in chunks, each in its own short transaction, and a single run is capped
+ * so that a large backlog is drained over several runs instead of one long lock.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.expiry.enabled", havingValue = "true")
+public class BookingExpiryJob {
+    private final BookingRepository bookingStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final DistributionSummary expiredPerRun;
+    private final Timer runDuration;
+
+    @Autowired
+    public BookingExpiryJob(BookingRepository bookingStorage,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${shareit.booking.expiry.chunk-size}") int chunkSize,
+                            @Value("${shareit.booking.expiry.max-chunks-per-run}") int maxChunksPerRun) {
+        this.bookingStorage = bookingStorage;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.expiredPerRun = DistributionSummary.builder("shareit.bookings.expiry.rows")
+                .description("WAITING bookings canceled per expiry run")
+                .register(meterRegistry);
+        this.runDuration = Timer.builder("shareit.bookings.expiry.duration")
+                .description("Duration of a WAITING bookings expiry run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.expiry.interval}",
+            initialDelayString = "${shareit.booking.expiry.interval}")
+    public void expireWaitingBookings() {
+        int expired = runDuration.record(this::expireChunks);
+        expiredPerRun.record(expired);
+        if (expired > 0) {
+            log.info("Expiry run canceled {} WAITING bookings that were not confirmed before their start", expired);
+        }
+    }
+
+    private int expireChunks() {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            Integer updated = transactionTemplate.execute(status -> expireChunk(now));
+            if (updated == null || updated == 0) {
+                break;
+            }
+            expired += updated;
+        }
+        return expired;
+    }
+
+    private int expireChunk(LocalDateTime now) {
+        List<Long> bookingIds = bookingStorage.findIdsByStatusAndStartBefore(
+                BookingStatus.WAITING, now, Limit.of(chunkSize));
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        return bookingStorage.updateWaitingStatus(bookingIds, BookingStatus.CANCELED);
+    }
+}
@@ -1,10 +1,18 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.data.domain.Window;
 import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingImportDto;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookingService {
 
@@ -12,10 +20,26 @@ public interface BookingService {
 
     BookingDto confirmBooking(Long bookingId, Long userId, Boolean approved);
 
+    List<BookingApprovalResultDto> confirmBookings(List<BookingApprovalDto> approvals, Long userId);
+
+    int importBookings(List<BookingImportDto> bookings, Long userId);
+
     BookingDto getBooking(Long bookingId, Long userId);
 
+    Optional<String> getBookingVersion(Long bookingId, Long userId);
+
     Collection<BookingDto> getUserBookings(BookingState state, Long userId);
 
     Collection<BookingDto> getBookingsByOwner(BookingState state, Long userId);
 
+    Window<BookingDto> getUserBookings(BookingState state, Long userId, String cursor, int size);
+
+    Window<BookingDto> getBookingsByOwner(BookingState state, Long userId, String cursor, int size);
+
+    Map<BookingState, Long> getUserBookingCounts(Long userId);
+
+    Map<BookingState, Long> getOwnerBookingCounts(Long userId);
+
+    void exportUserBookings(Long userId, Consumer<BookingDto> sink);
+
 }
@@ -1,12 +1,24 @@
 package ru.practicum.shareit.booking.service;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingImportDto;
+import ru.practicum.shareit.booking.dto.BookingOwnership;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
@@ -14,61 +26,229 @@ import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.service.ItemNameIndex;
 import ru.practicum.shareit.item.storage.ItemRepository;
-import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final List<BookingStatus> LIVE_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final int IMPORT_CHUNK_SIZE = 50;
+    private static final String CURSOR_KEY = "start";
+    private static final Sort PAGE_SORT = Sort.by(Sort.Order.desc(CURSOR_KEY), Sort.Order.desc("id"));
 
     private final BookingRepository bookingStorage;
-    private final ItemServiceImpl itemService;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ItemNameIndex nameIndex;
+    private final EntityManager entityManager;
+    private final Timer itemLockWait;
+    private final AtomicInteger itemLockWaiters = new AtomicInteger();
+
+    @Autowired
+    public BookingServiceImpl(BookingRepository bookingStorage,
+                              UserRepository userRepository,
+                              ItemRepository itemRepository,
+                              ItemNameIndex nameIndex,
+                              EntityManager entityManager,
+                              MeterRegistry meterRegistry) {
+        this.bookingStorage = bookingStorage;
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.nameIndex = nameIndex;
+        this.entityManager = entityManager;
+        this.itemLockWait = Timer.builder("shareit.bookings.item.lock.wait")
+                .description("Time a booking creation waits for the lock on its item")
+                .register(meterRegistry);
+        Gauge.builder("shareit.bookings.item.lock.waiting", itemLockWaiters, AtomicInteger::get)
+                .description("Booking creations currently waiting for an item lock")
+                .register(meterRegistry);
+    }
 
     @Override
     @Transactional
     public BookingDto addBooking(NewBookingDto bookingDto, Long userId) {
         User user = validateUser(userId);
-        Item item = validateItem(bookingDto.getItemId());
+        Item item = lockItem(bookingDto.getItemId());
         if (!item.getAvailable()) {
             throw new BadRequestException("Item with id " + item.getId() + " is not available for booking");
         }
+        validateNoOverlap(item.getId(), bookingDto);
         Booking booking = BookingMapper.toBooking(bookingDto);
         booking.setBooker(user);
         booking.setItem(item);
-        return BookingMapper.toBookingDto(bookingStorage.save(booking));
+        Booking saved = bookingStorage.save(booking);
+        itemRepository.addBookingsCount(item.getId(), 1);
+        nameIndex.addBookingsAfterCommit(item.getName(), 1);
+        return BookingMapper.toBookingDto(saved);
     }
 
     @Override
     @Transactional
     public BookingDto confirmBooking(Long bookingId, Long userId, Boolean approved) {
         Booking booking = validateNotFound(bookingId);
-        validateBookingByOwner(bookingId, userId);
+        validateBookingByOwner(booking, userId);
         validateStatus(booking.getStatus());
-        if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        BookingDto result = BookingMapper.toBookingDto(booking);
+        if (bookingStorage.updateWaitingStatus(List.of(bookingId), status) == 0) {
+            throw new BadRequestException("Booking " + bookingId + " is no longer waiting for approval");
         }
-        return BookingMapper.toBookingDto(booking);
+        result.setStatus(status);
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public List<BookingApprovalResultDto> confirmBookings(List<BookingApprovalDto> approvals, Long userId) {
+        validateUser(userId);
+        Map<Long, BookingOwnership> bookings = bookingStorage.findOwnershipByIdIn(approvals.stream()
+                        .map(BookingApprovalDto::getBookingId)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(BookingOwnership::getId, Function.identity()));
+        Map<BookingStatus, List<Long>> updates = new EnumMap<>(BookingStatus.class);
+        Set<Long> processed = new HashSet<>();
+        List<BookingApprovalResultDto> results = new ArrayList<>();
+        Map<Long, BookingApprovalResultDto> accepted = new HashMap<>();
+        for (BookingApprovalDto approval : approvals) {
+            Long bookingId = approval.getBookingId();
+            BookingOwnership booking = bookings.get(bookingId);
+            String error = null;
+            if (booking == null) {
+                error = "Booking " + bookingId + " not found";
+            } else if (!processed.add(bookingId)) {
+                error = "Booking " + bookingId + " is listed more than once";
+            } else if (!booking.getOwnerId().equals(userId)) {
+                error = "The initiator is not the owner of the booking";
+            } else if (booking.getStatus() != BookingStatus.WAITING) {
+                error = "The status of booking should be WAITING while current status is " + booking.getStatus();
+            } else if (approval.getApproved() == null) {
+                error = "The approval decision is missing";
+            }
+            if (error != null) {
+                results.add(new BookingApprovalResultDto(bookingId, booking == null ? null : booking.getStatus(), error));
+                continue;
+            }
+            BookingStatus status = approval.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            updates.computeIfAbsent(status, key -> new ArrayList<>()).add(bookingId);
+            BookingApprovalResultDto result = new BookingApprovalResultDto(bookingId, status, null);
+            accepted.put(bookingId, result);
+            results.add(result);
+        }
+        updates.forEach((status, bookingIds) -> {
+            if (bookingStorage.updateWaitingStatus(bookingIds, status) < bookingIds.size()) {
+                reportSkipped(bookingIds, status, accepted);
+            }
+        });
+        return results;
+    }
+
+    private void reportSkipped(List<Long> bookingIds, BookingStatus status,
+                               Map<Long, BookingApprovalResultDto> results) {
+        for (BookingOwnership booking : bookingStorage.findOwnershipByIdIn(bookingIds)) {
+            if (booking.getStatus() != status) {
+                BookingApprovalResultDto result = results.get(booking.getId());
+                result.setStatus(booking.getStatus());
+                result.setError("The status of booking should be WAITING while current status is " +
+                        booking.getStatus());
+            }
+        }
+    }
+
+    @Override
+    @Transactional
+    public int importBookings(List<BookingImportDto> bookings, Long userId) {
+        validateUser(userId);
+        for (int i = 0; i < bookings.size(); i++) {
+            BookingImportDto booking = bookings.get(i);
+            if (booking.getItemId() == null || booking.getBookerId() == null) {
+                throw new BadRequestException("Booking #" + i + ": the item id and the booker id are required");
+            }
+        }
+        Map<Long, Item> items = itemRepository.findAllById(bookings.stream()
+                        .map(BookingImportDto::getItemId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        Map<Long, User> bookers = userRepository.findAllById(bookings.stream()
+                        .map(BookingImportDto::getBookerId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<Booking> imported = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            BookingImportDto booking = bookings.get(i);
+            Item item = items.get(booking.getItemId());
+            User booker = bookers.get(booking.getBookerId());
+            if (item == null) {
+                throw new NotFoundException("Booking #" + i + ": item " + booking.getItemId() + " not found");
+            }
+            if (booker == null) {
+                throw new NotFoundException("Booking #" + i + ": user " + booking.getBookerId() + " not found");
+            }
+            if (!item.getOwner().getId().equals(userId)) {
+                throw new BadRequestException("Booking #" + i + ": the initiator is not the owner of item " +
+                        item.getId());
+            }
+            if (booker.getId().equals(userId)) {
+                throw new BadRequestException("Booking #" + i + ": the owner cannot book their own item " +
+                        item.getId());
+            }
+            if (booking.getStart() == null || booking.getEnd() == null ||
+                    !booking.getEnd().isAfter(booking.getStart())) {
+                throw new BadRequestException("Booking #" + i + ": the start date " + booking.getStart() +
+                        " should be before the end date " + booking.getEnd());
+            }
+            imported.add(BookingMapper.toBooking(booking, item, booker));
+        }
+        for (int from = 0; from < imported.size(); from += IMPORT_CHUNK_SIZE) {
+            bookingStorage.saveAll(imported.subList(from, Math.min(from + IMPORT_CHUNK_SIZE, imported.size())));
+            entityManager.flush();
+            entityManager.clear();
+        }
+        bookings.stream()
+                .collect(Collectors.groupingBy(BookingImportDto::getItemId, Collectors.counting()))
+                .forEach((itemId, count) -> {
+                    itemRepository.addBookingsCount(itemId, count);
+                    Item item = items.get(itemId);
+                    if (item.getAvailable()) {
+                        nameIndex.addBookingsAfterCommit(item.getName(), count);
+                    }
+                });
+        return imported.size();
     }
 
     @Override
     public BookingDto getBooking(Long bookingId, Long userId) {
-        BookingDto bookingDto = BookingMapper.toBookingDto(validateNotFound(bookingId));
-        validateBookingByBookerOrOwner(bookingId, userId);
-        return bookingDto;
+        Booking booking = validateNotFound(bookingId);
+        validateBookingByBookerOrOwner(booking, userId);
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Override
+    public Optional<String> getBookingVersion(Long bookingId, Long userId) {
+        return bookingStorage.findVersionTag(bookingId, userId);
     }
 
     @Override
@@ -98,27 +278,101 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public Collection<BookingDto> getBookingsByOwner(BookingState state, Long userId) {
         validateUser(userId);
-        long count = itemService.getItems(userId).size();
-        if (count == 0) {
-            throw new NotFoundException("User has no items");
-        }
+        List<Long> itemIds = getOwnerItemIds(userId);
         Sort sort = Sort.by("start").descending();
         LocalDateTime now = LocalDateTime.now();
         List<Booking> bookings = switch (state) {
-            case ALL -> bookingStorage.findByItemOwnerId(userId, sort);
-            case CURRENT -> bookingStorage.findCurrentByOwner(userId, now, sort);
-            case PAST -> bookingStorage.findPastByOwner(userId, now, sort);
-            case FUTURE -> bookingStorage.findFutureByOwner(userId, now, sort);
-            case WAITING -> bookingStorage.findByItemOwnerIdAndStatus(
-                    userId, BookingStatus.WAITING, sort);
-            case REJECTED -> bookingStorage.findByItemOwnerIdAndStatus(
-                    userId, BookingStatus.REJECTED, sort);
+            case ALL -> bookingStorage.findByItemIdIn(itemIds, sort);
+            case CURRENT -> bookingStorage.findCurrentByItemIds(itemIds, now, sort);
+            case PAST -> bookingStorage.findPastByItemIds(itemIds, now, sort);
+            case FUTURE -> bookingStorage.findFutureByItemIds(itemIds, now, sort);
+            case WAITING -> bookingStorage.findByItemIdInAndStatus(
+                    itemIds, BookingStatus.WAITING, sort);
+            case REJECTED -> bookingStorage.findByItemIdInAndStatus(
+                    itemIds, BookingStatus.REJECTED, sort);
         };
         return bookings.stream()
                 .map(BookingMapper::toBookingDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Window<BookingDto> getUserBookings(BookingState state, Long userId, String cursor, int size) {
+        Limit limit = KeysetCursor.limit(size);
+        validateUser(userId);
+        ScrollPosition position = KeysetCursor.decode(cursor, CURSOR_KEY);
+        LocalDateTime now = LocalDateTime.now();
+        Window<Booking> bookings = switch (state) {
+            case ALL -> bookingStorage.findByBookerId(userId, position, PAGE_SORT, limit);
+            case CURRENT -> bookingStorage.findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqual(
+                    userId, now, now, position, PAGE_SORT, limit);
+            case PAST -> bookingStorage.findByBookerIdAndStartBeforeAndEndBefore(
+                    userId, now, now, position, PAGE_SORT, limit);
+            case FUTURE -> bookingStorage.findByBookerIdAndStartAfter(userId, now, position, PAGE_SORT, limit);
+            case WAITING -> bookingStorage.findByBookerIdAndStatus(
+                    userId, BookingStatus.WAITING, position, PAGE_SORT, limit);
+            case REJECTED -> bookingStorage.findByBookerIdAndStatus(
+                    userId, BookingStatus.REJECTED, position, PAGE_SORT, limit);
+        };
+        return bookings.map(BookingMapper::toBookingDto);
+    }
+
+    @Override
+    public Window<BookingDto> getBookingsByOwner(BookingState state, Long userId, String cursor, int size) {
+        Limit limit = KeysetCursor.limit(size);
+        validateUser(userId);
+        List<Long> itemIds = getOwnerItemIds(userId);
+        ScrollPosition position = KeysetCursor.decode(cursor, CURSOR_KEY);
+        LocalDateTime now = LocalDateTime.now();
+        Window<Booking> bookings = switch (state) {
+            case ALL -> bookingStorage.findByItemIdIn(itemIds, position, PAGE_SORT, limit);
+            case CURRENT -> bookingStorage.findByItemIdInAndStartLessThanEqualAndEndGreaterThanEqual(
+                    itemIds, now, now, position, PAGE_SORT, limit);
+            case PAST -> bookingStorage.findByItemIdInAndStartBeforeAndEndBefore(
+                    itemIds, now, now, position, PAGE_SORT, limit);
+            case FUTURE -> bookingStorage.findByItemIdInAndStartAfter(itemIds, now, position, PAGE_SORT, limit);
+            case WAITING -> bookingStorage.findByItemIdInAndStatus(
+                    itemIds, BookingStatus.WAITING, position, PAGE_SORT, limit);
+            case REJECTED -> bookingStorage.findByItemIdInAndStatus(
+                    itemIds, BookingStatus.REJECTED, position, PAGE_SORT, limit);
+        };
+        return bookings.map(BookingMapper::toBookingDto);
+    }
+
+    @Override
+    public Map<BookingState, Long> getUserBookingCounts(Long userId) {
+        validateUser(userId);
+        return BookingMapper.toStateCounts(bookingStorage.countStatesByBooker(userId, LocalDateTime.now()));
+    }
+
+    @Override
+    public Map<BookingState, Long> getOwnerBookingCounts(Long userId) {
+        validateUser(userId);
+        return BookingMapper.toStateCounts(bookingStorage.countStatesByItemIds(
+                itemRepository.findIdsByOwnerId(userId), LocalDateTime.now()));
+    }
+
+    @Override
+    public void exportUserBookings(Long userId, Consumer<BookingDto> sink) {
+        try (Stream<Booking> bookings = bookingStorage.streamByBookerId(userId)) {
+            int exported = 0;
+            for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+                sink.accept(BookingMapper.toBookingDto(booking));
+                if (++exported % BookingRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    private List<Long> getOwnerItemIds(Long userId) {
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(userId);
+        if (itemIds.isEmpty()) {
+            throw new NotFoundException("User has no items");
+        }
+        return itemIds;
+    }
+
     private void validateStatus(BookingStatus status) {
         if (status != BookingStatus.WAITING) {
             throw new BadRequestException("The status of booking should be WAITING while current status is " +
@@ -126,24 +380,36 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    private void validateNoOverlap(Long itemId, NewBookingDto bookingDto) {
+        if (bookingStorage.existsOverlapping(itemId, bookingDto.getStart(), bookingDto.getEnd(), LIVE_STATUSES)) {
+            throw new BadRequestException("Item with id " + itemId + " is already booked from " +
+                    bookingDto.getStart() + " to " + bookingDto.getEnd());
+        }
+    }
+
     private User validateUser(Long id) {
         return userRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("User " + id + " not found"));
     }
 
-    private Item validateItem(Long id) {
-        return itemRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Item " + id + " not found"));
+    private Item lockItem(Long id) {
+        itemLockWaiters.incrementAndGet();
+        try {
+            return itemLockWait.record(() -> itemRepository.findByIdForUpdate(id))
+                    .orElseThrow(() -> new NotFoundException("Item " + id + " not found"));
+        } finally {
+            itemLockWaiters.decrementAndGet();
+        }
     }
 
-    private void validateBookingByBookerOrOwner(Long bookingId, Long userId) {
-        if (!bookingStorage.isBookingOwnerOrBooker(bookingId, userId)) {
+    private void validateBookingByBookerOrOwner(Booking booking, Long userId) {
+        if (!booking.getBooker().getId().equals(userId) && !booking.getItem().getOwner().getId().equals(userId)) {
             throw new NotFoundException("The requestor is not the owner or booker");
         }
     }
 
-    private void validateBookingByOwner(Long bookingId, Long ownerId) {
-        if (!bookingStorage.existsByIdAndOwnerId(bookingId, ownerId)) {
+    private void validateBookingByOwner(Booking booking, Long ownerId) {
+        if (!booking.getItem().getOwner().getId().equals(ownerId)) {
             throw new BadRequestException("The initiator is not the owner of the booking");
         }
     }
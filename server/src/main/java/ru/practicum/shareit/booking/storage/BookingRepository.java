@@ -1,36 +1,91 @@
 package ru.practicum.shareit.booking.storage;
 
+import org.hibernate.jpa.HibernateHints;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingOwnership;
+import ru.practicum.shareit.booking.dto.BookingStateCounts;
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.item.model.Item;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query("SELECT COUNT(b) > 0 FROM Booking b JOIN b.item i WHERE b.id = :bookingId AND i.owner.id = :ownerId")
-    boolean existsByIdAndOwnerId(@Param("bookingId") Long bookingId,
-                                 @Param("ownerId") Long ownerId);
+    int EXPORT_FETCH_SIZE = 500;
 
-    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END " +
-            "FROM Booking b " +
-            "WHERE b.id = :bookingId " +
-            "AND (b.booker.id = :userId OR b.item.owner.id = :userId)")
-    boolean isBookingOwnerOrBooker(@Param("bookingId") Long bookingId,
-                                   @Param("userId") Long userId);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    @Override
+    Optional<Booking> findById(Long id);
+
+    @Query("SELECT b.id AS id, b.status AS status, i.owner.id AS ownerId " +
+            "FROM Booking b JOIN b.item i " +
+            "WHERE b.id IN :bookingIds")
+    List<BookingOwnership> findOwnershipByIdIn(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Query("SELECT concat(cast(b.version as String), '-', cast(i.version as String), '-', " +
+            "cast(o.version as String), '-', cast(u.version as String)) " +
+            "FROM Booking b JOIN b.item i JOIN i.owner o JOIN b.booker u " +
+            "WHERE b.id = :id AND (u.id = :userId OR o.id = :userId)")
+    Optional<String> findVersionTag(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 " +
+            "WHERE b.id IN :bookingIds " +
+            "AND b.status = 'WAITING'")
+    int updateWaitingStatus(@Param("bookingIds") Collection<Long> bookingIds,
+                            @Param("status") BookingStatus status);
+
+    @Query("SELECT b.id FROM Booking b " +
+            "WHERE b.status = :status " +
+            "AND b.start < :currentTime " +
+            "ORDER BY b.start, b.id")
+    List<Long> findIdsByStatusAndStartBefore(@Param("status") BookingStatus status,
+                                             @Param("currentTime") LocalDateTime currentTime,
+                                             Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId ORDER BY b.start DESC, b.id DESC")
+    Stream<Booking> streamByBookerId(@Param("bookerId") Long bookerId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT b.start AS start, b.end AS end FROM Booking b " +
+            "WHERE b.item.id = :itemId " +
+            "AND b.status IN :statuses " +
+            "AND b.start < :to " +
+            "AND b.end > :from " +
+            "ORDER BY b.start")
+    Stream<BookingInterval> streamIntervals(@Param("itemId") Long itemId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            @Param("statuses") Collection<BookingStatus> statuses);
 
+    @EntityGraph(Booking.DETAILS_GRAPH)
     List<Booking> findByBookerId(Long bookerId, Sort sort);
 
+    @EntityGraph(Booking.DETAILS_GRAPH)
     List<Booking> findByBookerIdAndStatus(
             Long bookerId,
             BookingStatus status,
             Sort sort
     );
 
+    @EntityGraph(Booking.DETAILS_GRAPH)
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker.id = :bookerId " +
             "AND b.start <= :currentTime " +
@@ -41,8 +96,10 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             Sort sort
     );
 
+    @EntityGraph(Booking.DETAILS_GRAPH)
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker.id = :bookerId " +
+            "AND b.start < :currentTime " +
             "AND b.end < :currentTime ")
     List<Booking> findPastBookings(
             @Param("bookerId") Long bookerId,
@@ -50,6 +107,7 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             Sort sort
     );
 
+    @EntityGraph(Booking.DETAILS_GRAPH)
     @Query("SELECT b FROM Booking b " +
             "WHERE b.booker.id = :bookerId " +
             "AND b.start > :currentTime ")
@@ -59,54 +117,145 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             Sort sort
     );
 
-    List<Booking> findByItemOwnerId(Long ownerId, Sort sort);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    List<Booking> findByItemIdIn(Collection<Long> itemIds, Sort sort);
 
-    List<Booking> findByItemOwnerIdAndStatus(Long ownerId, BookingStatus status, Sort sort);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    List<Booking> findByItemIdInAndStatus(Collection<Long> itemIds, BookingStatus status, Sort sort);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId " +
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds " +
             "AND b.start <= :now AND b.end >= :now")
-    List<Booking> findCurrentByOwner(
-            @Param("ownerId") Long ownerId,
+    List<Booking> findCurrentByItemIds(
+            @Param("itemIds") Collection<Long> itemIds,
             @Param("now") LocalDateTime now,
             Sort sort);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId " +
-            "AND b.end < :now")
-    List<Booking> findPastByOwner(
-            @Param("ownerId") Long ownerId,
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds " +
+            "AND b.start < :now AND b.end < :now")
+    List<Booking> findPastByItemIds(
+            @Param("itemIds") Collection<Long> itemIds,
             @Param("now") LocalDateTime now,
             Sort sort);
 
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId " +
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    @Query("SELECT b FROM Booking b WHERE b.item.id IN :itemIds " +
             "AND b.start > :now")
-    List<Booking> findFutureByOwner(
-            @Param("ownerId") Long ownerId,
+    List<Booking> findFutureByItemIds(
+            @Param("itemIds") Collection<Long> itemIds,
             @Param("now") LocalDateTime now,
             Sort sort);
 
-    boolean existsByBookerIdAndItemIdAndEndBefore(Long bookerId, Long itemId, LocalDateTime end);
-
-    @Query("SELECT b.end FROM Booking b " +
+    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
             "WHERE b.item.id = :itemId " +
-            "AND b.status = 'APPROVED' " +
-            "AND b.end < :currentTime " +
-            "ORDER BY b.end DESC")
-    List<LocalDateTime> findLastBookingDate(@Param("itemId") Long itemId,
-                                            @Param("currentTime") LocalDateTime currentTime,
-                                            Sort sort);
+            "AND b.status IN :statuses " +
+            "AND b.start < :end " +
+            "AND b.end > :start")
+    boolean existsOverlapping(@Param("itemId") Long itemId,
+                              @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end,
+                              @Param("statuses") Collection<BookingStatus> statuses);
 
-    @Query("SELECT b.start FROM Booking b " +
-            "WHERE b.item.id = :itemId " +
-            "AND b.status = 'APPROVED' " +
-            "AND b.start > :currentTime " +
-            "ORDER BY b.start ASC")
-    List<LocalDateTime> findNextBookingDate(@Param("itemId") Long itemId,
-                                            @Param("currentTime") LocalDateTime currentTime,
-                                            Sort sort);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findByBookerId(Long bookerId, ScrollPosition position, Sort sort, Limit limit);
 
-    @Query("SELECT b FROM Booking b " +
-            "WHERE b.item IN :items " +
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findByBookerIdAndStatus(Long bookerId,
+                                            BookingStatus status,
+                                            ScrollPosition position,
+                                            Sort sort,
+                                            Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findByBookerIdAndStartLessThanEqualAndEndGreaterThanEqual(Long bookerId,
+                                                                              LocalDateTime start,
+                                                                              LocalDateTime end,
+                                                                              ScrollPosition position,
+                                                                              Sort sort,
+                                                                              Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findByBookerIdAndStartBeforeAndEndBefore(Long bookerId,
+                                                             LocalDateTime start,
+                                                             LocalDateTime end,
+                                                             ScrollPosition position,
+                                                             Sort sort,
+                                                             Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findByBookerIdAndStartAfter(Long bookerId,
+                                                LocalDateTime start,
+                                                ScrollPosition position,
+                                                Sort sort,
+                                                Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findByItemIdIn(Collection<Long> itemIds, ScrollPosition position, Sort sort, Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findByItemIdInAndStatus(Collection<Long> itemIds,
+                                            BookingStatus status,
+                                            ScrollPosition position,
+                                            Sort sort,
+                                            Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findByItemIdInAndStartLessThanEqualAndEndGreaterThanEqual(Collection<Long> itemIds,
+                                                                              LocalDateTime start,
+                                                                              LocalDateTime end,
+                                                                              ScrollPosition position,
+                                                                              Sort sort,
+                                                                              Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findByItemIdInAndStartBeforeAndEndBefore(Collection<Long> itemIds,
+                                                             LocalDateTime start,
+                                                             LocalDateTime end,
+                                                             ScrollPosition position,
+                                                             Sort sort,
+                                                             Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findByItemIdInAndStartAfter(Collection<Long> itemIds,
+                                                LocalDateTime start,
+                                                ScrollPosition position,
+                                                Sort sort,
+                                                Limit limit);
+
+    @Query("SELECT COUNT(b) AS allCount, " +
+            "COALESCE(SUM(CASE WHEN b.start <= :currentTime AND b.end >= :currentTime THEN 1 ELSE 0 END), 0) " +
+            "AS currentCount, " +
+            "COALESCE(SUM(CASE WHEN b.end < :currentTime THEN 1 ELSE 0 END), 0) AS pastCount, " +
+            "COALESCE(SUM(CASE WHEN b.start > :currentTime THEN 1 ELSE 0 END), 0) AS futureCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = 'WAITING' THEN 1 ELSE 0 END), 0) AS waitingCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = 'REJECTED' THEN 1 ELSE 0 END), 0) AS rejectedCount " +
+            "FROM Booking b " +
+            "WHERE b.booker.id = :bookerId")
+    BookingStateCounts countStatesByBooker(@Param("bookerId") Long bookerId,
+                                           @Param("currentTime") LocalDateTime currentTime);
+
+    @Query("SELECT COUNT(b) AS allCount, " +
+            "COALESCE(SUM(CASE WHEN b.start <= :currentTime AND b.end >= :currentTime THEN 1 ELSE 0 END), 0) " +
+            "AS currentCount, " +
+            "COALESCE(SUM(CASE WHEN b.end < :currentTime THEN 1 ELSE 0 END), 0) AS pastCount, " +
+            "COALESCE(SUM(CASE WHEN b.start > :currentTime THEN 1 ELSE 0 END), 0) AS futureCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = 'WAITING' THEN 1 ELSE 0 END), 0) AS waitingCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = 'REJECTED' THEN 1 ELSE 0 END), 0) AS rejectedCount " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds")
+    BookingStateCounts countStatesByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                            @Param("currentTime") LocalDateTime currentTime);
+
+    boolean existsByBookerIdAndItemIdAndEndBefore(Long bookerId, Long itemId, LocalDateTime end);
+
+    @Query("SELECT b.item.id AS itemId, " +
+            "MAX(CASE WHEN b.end < :currentTime THEN b.end END) AS lastBooking, " +
+            "MIN(CASE WHEN b.start > :currentTime THEN b.start END) AS nextBooking " +
+            "FROM Booking b " +
+            "WHERE b.item.id IN :itemIds " +
             "AND b.status = 'APPROVED' " +
-            "ORDER BY b.start ASC")
-    List<Booking> findApprovedBookingsForItems(@Param("items") List<Item> items);
+            "GROUP BY b.item.id")
+    List<ItemBookingDates> findBookingDatesByItemIds(@Param("itemIds") Collection<Long> itemIds,
+                                                     @Param("currentTime") LocalDateTime currentTime);
 }
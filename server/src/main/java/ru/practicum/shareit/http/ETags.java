@@ -0,0 +1,46 @@
+package ru.practicum.shareit.http;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Strong entity tags built from the version of a resource and the versions of the entities rendered
+ * into it, such as embedded users. The versions come from a projection query that runs before the
+ * resource is loaded, so a matching If-None-Match is answered with 304 without loading, mapping or
+ * serializing the resource. Since the versions are read first, a concurrent change can only label a
+ * newer body with an older tag, which costs the client one more full response but never hides the
+ * change. A missing version means the resource is missing or hidden from the caller, and the
+ * loader reports that.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class ETags {
+    private static final String WEAK_PREFIX = "W/";
+    private static final String ANY = "*";
+
+    public static <T> ResponseEntity<T> respond(HttpHeaders requestHeaders, Optional<String> version,
+                                                Function<String, T> loader) {
+        if (version.isEmpty()) {
+            return ResponseEntity.ok(loader.apply(null));
+        }
+        String etag = "\"" + version.get() + "\"";
+        if (matches(requestHeaders, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(loader.apply(version.get()));
+    }
+
+    private static boolean matches(HttpHeaders requestHeaders, String etag) {
+        return requestHeaders.getIfNoneMatch().stream()
+                .anyMatch(candidate -> candidate.equals(ANY) || etag.equals(withoutWeakPrefix(candidate)));
+    }
+
+    private static String withoutWeakPrefix(String etag) {
+        return etag.startsWith(WEAK_PREFIX) ? etag.substring(WEAK_PREFIX.length()) : etag;
+    }
+}
@@ -4,18 +4,30 @@ package ru.practicum.shareit.item.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Window;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.exceptions.BadRequestException;
+import ru.practicum.shareit.http.ETags;
 import ru.practicum.shareit.item.dto.*;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.KeysetCursor;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 
 @Slf4j
 @RestController
 @RequestMapping("/items")
 public class ItemController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int DEFAULT_SUGGEST_SIZE = 10;
+
     private final ItemService itemService;
 
     @Autowired
@@ -65,17 +77,56 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    @ResponseStatus(HttpStatus.OK)
-    public ItemDto getItem(@PathVariable Long itemId) {
+    public ResponseEntity<ItemDto> getItem(@PathVariable Long itemId,
+                                           @RequestHeader HttpHeaders headers) {
         log.debug("GET/items/id: returning item {}", itemId);
-        return itemService.getItem(itemId);
+        return ETags.respond(headers, itemService.getItemVersion(itemId),
+                version -> itemService.getItem(itemId, version));
+    }
+
+    @GetMapping("/{itemId}/availability")
+    @ResponseStatus(HttpStatus.OK)
+    public List<FreeIntervalDto> getAvailability(
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.debug("GET/items/id/availability: returning free intervals of item {} from {} to {}", itemId, from, to);
+        return itemService.getAvailability(itemId, from, to);
+    }
+
+    @GetMapping("/suggest")
+    @ResponseStatus(HttpStatus.OK)
+    public List<String> suggestNames(@RequestParam String prefix,
+                                     @RequestParam(defaultValue = "" + DEFAULT_SUGGEST_SIZE) int size) {
+        log.debug("GET/items/suggest: returning {} item names starting with {}", size, prefix);
+        return itemService.suggestNames(prefix, size);
     }
 
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public Collection<ItemDto> searchItems(@RequestParam String text) {
-        log.debug("GET/items: all items of the containing text {}", text);
-        return itemService.searchItems(text);
+    public Collection<ItemDto> searchItems(
+            @RequestParam String text,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        if (fuzzy) {
+            if (offset != null || size != null) {
+                throw new BadRequestException("Paging is not supported by the fuzzy search");
+            }
+            log.debug("GET/items: items with terms similar to {} free from {} to {}", text, from, to);
+            return itemService.searchItemsFuzzy(text, from, to);
+        }
+        if (offset == null && size == null) {
+            log.debug("GET/items: all items of the containing text {} free from {} to {}", text, from, to);
+            return itemService.searchItems(text, from, to);
+        }
+        log.debug("GET/items: ranked items containing text {} free from {} to {}, offset {}, size {}",
+                text, from, to, offset, size);
+        return itemService.searchItems(text, from, to,
+                offset == null ? 0 : offset,
+                size == null ? DEFAULT_PAGE_SIZE : size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -86,4 +137,19 @@ public class ItemController {
         return itemService.addComment(itemId, userId, commentDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable Long itemId,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        log.debug("GET/items/id/comments: returning page of {} comments of item {} after cursor {}",
+                size, itemId, cursor);
+        Window<CommentDto> page = itemService.getComments(itemId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        String next = KeysetCursor.next(page);
+        if (next != null) {
+            response.header(KeysetCursor.HEADER, next);
+        }
+        return response.body(page.getContent());
+    }
+
 }
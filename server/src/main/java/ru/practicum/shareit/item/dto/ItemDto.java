@@ -2,8 +2,8 @@ package ru.practicum.shareit.item.dto;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import ru.practicum.shareit.request.model.ItemRequest;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.request.dto.ItemRequestShortDto;
+import ru.practicum.shareit.user.dto.UserShortDto;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,9 +21,10 @@ public class ItemDto {
 
 
     private Boolean available;
-    private User owner;
-    private ItemRequest request;
+    private UserShortDto owner;
+    private ItemRequestShortDto request;
     private List<CommentDto> comments;
+    private Long commentsCount;
     private LocalDate lastBooking;
     private LocalDate nextBooking;
 }
@@ -8,20 +8,28 @@ import ru.practicum.shareit.item.dto.ItemReturnedDto;
 import ru.practicum.shareit.item.dto.NewItemDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.mapper.ItemRequestMapper;
+import ru.practicum.shareit.user.mapper.UserMapper;
 
 import java.util.ArrayList;
+import java.util.List;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ItemMapper {
     public static ItemDto toItemDto(Item item) {
+        return toItemDto(item, List.of());
+    }
+
+    public static ItemDto toItemDto(Item item, List<Comment> comments) {
         return new ItemDto(
                 item.getId(),
                 item.getName(),
                 item.getDescription(),
                 item.getAvailable(),
-                item.getOwner(),
-                item.getRequest(),
-                item.getComments().stream().map(CommentMapper::toCommentDto).toList(),
+                UserMapper.toUserShortDto(item.getOwner()),
+                ItemRequestMapper.toItemRequestShortDto(item.getRequest()),
+                comments.stream().map(CommentMapper::toCommentDto).toList(),
+                item.getCommentsCount(),
                 null,
                 null
         );
@@ -41,8 +49,8 @@ public class ItemMapper {
                 itemDto.getName(),
                 itemDto.getDescription(),
                 itemDto.getAvailable(),
-                itemDto.getOwner(),
-                itemDto.getRequest(),
+                UserMapper.toUser(itemDto.getOwner()),
+                ItemRequestMapper.toItemRequest(itemDto.getRequest()),
                 new ArrayList<Booking>(),
                 new ArrayList<Comment>()
         );
@@ -12,6 +12,13 @@ import java.util.List;
 
 @Entity
 @Table(name = "items")
+@NamedEntityGraph(
+        name = Item.DETAILS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode("request")
+        }
+)
 @Builder
 @Setter
 @Getter
@@ -21,6 +28,8 @@ import java.util.List;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @AllArgsConstructor
 public class Item {
+    public static final String DETAILS_GRAPH = "Item.details";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -34,11 +43,11 @@ public class Item {
     @Column(name = "is_available", nullable = false)
     private Boolean available;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private User owner;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id")
     private ItemRequest request;
 
@@ -49,4 +58,19 @@ public class Item {
     @OneToMany
     @JoinColumn(name = "item_id")
     private List<Comment> comments;
+
+    @Column(name = "comments_count", nullable = false)
+    private long commentsCount;
+
+    @Column(name = "bookings_count", nullable = false, updatable = false)
+    private long bookingsCount;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    public Item(Long id, String name, String description, Boolean available, User owner, ItemRequest request,
+                List<Booking> bookings, List<Comment> comments) {
+        this(id, name, description, available, owner, request, bookings, comments, 0, 0, 0);
+    }
 }
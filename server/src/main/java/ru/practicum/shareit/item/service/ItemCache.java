@@ -0,0 +1,93 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of assembled items served by GET /items/{id}. Each item id maps to one of a
+ * fixed set of version counters. An invalidation bumps the counter before dropping the entry, and
+ * a load is stored only if the counter is unchanged, so a reload that read the item before a
+ * committed change can never replace the fresh state. An entry also keeps the version tag read
+ * before it was loaded; a lookup for another version reloads the item, so a response tagged with
+ * the current version is never served from an entry that predates it.
+ */
+@Component
+public class ItemCache {
+    public static final String NAME = "items";
+
+    private static final int VERSION_STRIPES = 1024;
+
+    private final Cache<Long, Entry> items;
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+    private final Timer loadDuration;
+
+    @Autowired
+    public ItemCache(@Value("${shareit.item.cache.max-entries}") long maxEntries, MeterRegistry meterRegistry) {
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, items, NAME);
+        Gauge.builder("shareit.items.cache.hit.ratio", items, cache -> cache.stats().hitRate())
+                .description("Share of item lookups served from the cache")
+                .register(meterRegistry);
+        this.loadDuration = Timer.builder("shareit.items.cache.load")
+                .description("Duration of loading an item missing from the cache")
+                .register(meterRegistry);
+    }
+
+    public ItemDto get(Long itemId, Supplier<ItemDto> loader) {
+        return get(itemId, null, loader);
+    }
+
+    public ItemDto get(Long itemId, String version, Supplier<ItemDto> loader) {
+        Entry cached = items.getIfPresent(itemId);
+        if (cached != null && (version == null || version.equals(cached.version()))) {
+            return cached.item();
+        }
+        int stripe = stripe(itemId);
+        long loadedAt = versions.get(stripe);
+        Entry loaded = new Entry(version, loadDuration.record(loader));
+        items.asMap().compute(itemId, (id, current) -> versions.get(stripe) == loadedAt ? loaded : current);
+        return loaded.item();
+    }
+
+    public void invalidateAfterCommit(Long itemId) {
+        AfterCommit.run(() -> invalidate(itemId));
+    }
+
+    public void invalidateAllAfterCommit() {
+        AfterCommit.run(this::invalidateAll);
+    }
+
+    public void invalidate(Long itemId) {
+        versions.incrementAndGet(stripe(itemId));
+        items.invalidate(itemId);
+    }
+
+    public void invalidateAll() {
+        for (int stripe = 0; stripe < VERSION_STRIPES; stripe++) {
+            versions.incrementAndGet(stripe);
+        }
+        items.invalidateAll();
+    }
+
+    private static int stripe(Long itemId) {
+        return Long.hashCode(itemId) & (VERSION_STRIPES - 1);
+    }
+
+    private record Entry(String version, ItemDto item) {
+    }
+}
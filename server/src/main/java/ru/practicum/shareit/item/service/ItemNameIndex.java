@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemNamePopularity;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Names of the available items, completed by word prefix and ranked by bookings. Completion is
+ * served from memory: the index is rebuilt from the database periodically and adjusted after
+ * each committed item or booking change, so between rebuilds it may lag behind another instance.
+ */
+@Slf4j
+@Component
+public class ItemNameIndex {
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private final ItemRepository itemStorage;
+    private final TransactionTemplate transactionTemplate;
+    private volatile NameTrie names = new NameTrie(MAX_SUGGESTIONS);
+
+    @Autowired
+    public ItemNameIndex(ItemRepository itemStorage, TransactionTemplate transactionTemplate) {
+        this.itemStorage = itemStorage;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.search.dictionary.refresh-interval}")
+    public void rebuild() {
+        NameTrie rebuilt = new NameTrie(MAX_SUGGESTIONS);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ItemNamePopularity> popularity = itemStorage.streamNamePopularity()) {
+                popularity.forEach(item -> rebuilt.load(item.getName(), item.getBookingsCount()));
+            }
+        });
+        rebuilt.rankAll();
+        synchronized (this) {
+            names = rebuilt;
+        }
+        log.debug("Item name index rebuilt with {} names", rebuilt.size());
+    }
+
+    public void addAfterCommit(String name, long bookings) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                names.add(name, bookings);
+            }
+        });
+    }
+
+    public void removeAfterCommit(String name, long bookings) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                names.remove(name, bookings);
+            }
+        });
+    }
+
+    public void addBookingsAfterCommit(String name, long bookings) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                names.addBookings(name, bookings);
+            }
+        });
+    }
+
+    public synchronized List<String> suggest(String prefix, int limit) {
+        return names.complete(prefix, limit);
+    }
+}
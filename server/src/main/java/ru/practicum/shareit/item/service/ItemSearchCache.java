@@ -0,0 +1,195 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Results of the plain text item search keyed by the upper-cased query, which is how the search
+ * compares text. Entries are bounded by an estimate of their size in bytes and evicted by
+ * Caffeine's W-TinyLFU policy. An item change drops only the entries that list the item or whose
+ * query matches the item's old or new name or description. Both are found through indexes rather
+ * than a scan: one from item id to the queries listing it, one from the first characters of each
+ * query to the query. Invalidation runs after commit. A loaded result is indexed before the
+ * generation check that guards its store, and both happen inside one atomic map operation, so a
+ * result loaded before an invalidation is either never stored or found and dropped by it.
+ */
+@Component
+public class ItemSearchCache {
+    public static final String NAME = "itemSearch";
+
+    private static final int OBJECT_BYTES = 64;
+    private static final int PREFIX_LENGTH = 3;
+
+    private final Cache<String, List<ItemDto>> results;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Long, Set<String>> queriesByItem = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> queriesByPrefix = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ItemSearchCache(@Value("${shareit.search.cache.max-size}") DataSize maxSize,
+                           MeterRegistry meterRegistry) {
+        this.results = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher(ItemSearchCache::weigh)
+                .evictionListener((String key, List<ItemDto> items, RemovalCause cause) -> unindex(key, items))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, NAME);
+    }
+
+    public List<ItemDto> get(String text, Supplier<List<ItemDto>> loader) {
+        String key = normalize(text);
+        List<ItemDto> cached = results.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadedAt = generation.get();
+        List<ItemDto> loaded = List.copyOf(loader.get());
+        results.asMap().compute(key, (query, current) -> {
+            index(query, loaded);
+            if (generation.get() != loadedAt) {
+                unindex(query, loaded);
+                if (current != null) {
+                    unindex(query, current);
+                }
+                return null;
+            }
+            if (current != null) {
+                unindexItems(query, current, loaded);
+            }
+            return loaded;
+        });
+        return loaded;
+    }
+
+    public void invalidateAfterCommit(Long itemId, String... texts) {
+        AfterCommit.run(() -> invalidate(itemId, texts));
+    }
+
+    public void invalidateAllAfterCommit() {
+        AfterCommit.run(this::invalidateAll);
+    }
+
+    public void invalidate(Long itemId, String... texts) {
+        generation.incrementAndGet();
+        Set<String> affected = new HashSet<>(queriesByItem.getOrDefault(itemId, Set.of()));
+        for (String text : texts) {
+            if (text != null) {
+                affected.addAll(queriesContainedIn(normalize(text)));
+            }
+        }
+        affected.forEach(this::remove);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        List.copyOf(results.asMap().keySet()).forEach(this::remove);
+    }
+
+    private void remove(String query) {
+        results.asMap().computeIfPresent(query, (key, items) -> {
+            unindex(key, items);
+            return null;
+        });
+    }
+
+    private List<String> queriesContainedIn(String text) {
+        List<String> queries = new ArrayList<>();
+        Set<String> prefixes = new HashSet<>();
+        for (int start = 0; start <= text.length(); start++) {
+            for (int length = 0; length <= PREFIX_LENGTH && start + length <= text.length(); length++) {
+                prefixes.add(text.substring(start, start + length));
+            }
+        }
+        for (String prefix : prefixes) {
+            for (String query : queriesByPrefix.getOrDefault(prefix, Set.of())) {
+                if (text.contains(query)) {
+                    queries.add(query);
+                }
+            }
+        }
+        return queries;
+    }
+
+    private void index(String query, List<ItemDto> items) {
+        add(queriesByPrefix, prefix(query), query);
+        items.forEach(item -> add(queriesByItem, item.getId(), query));
+    }
+
+    private void unindex(String query, List<ItemDto> items) {
+        remove(queriesByPrefix, prefix(query), query);
+        items.forEach(item -> remove(queriesByItem, item.getId(), query));
+    }
+
+    private void unindexItems(String query, List<ItemDto> replaced, List<ItemDto> kept) {
+        Set<Long> keptIds = new HashSet<>();
+        kept.forEach(item -> keptIds.add(item.getId()));
+        replaced.stream()
+                .filter(item -> !keptIds.contains(item.getId()))
+                .forEach(item -> remove(queriesByItem, item.getId(), query));
+    }
+
+    private static <K> void add(Map<K, Set<String>> index, K key, String query) {
+        index.compute(key, (k, queries) -> {
+            Set<String> updated = queries == null ? ConcurrentHashMap.newKeySet() : queries;
+            updated.add(query);
+            return updated;
+        });
+    }
+
+    private static <K> void remove(Map<K, Set<String>> index, K key, String query) {
+        index.computeIfPresent(key, (k, queries) -> {
+            queries.remove(query);
+            return queries.isEmpty() ? null : queries;
+        });
+    }
+
+    private static String prefix(String query) {
+        return query.substring(0, Math.min(PREFIX_LENGTH, query.length()));
+    }
+
+    private static String normalize(String text) {
+        return text.toUpperCase(Locale.ROOT);
+    }
+
+    private static int weigh(String query, List<ItemDto> items) {
+        long bytes = OBJECT_BYTES + 2L * query.length();
+        for (ItemDto item : items) {
+            bytes += OBJECT_BYTES + 2L * (length(item.getName()) + length(item.getDescription()));
+            if (item.getOwner() != null) {
+                bytes += OBJECT_BYTES + 2L * (length(item.getOwner().getName()));
+            }
+            if (item.getRequest() != null) {
+                bytes += OBJECT_BYTES + 2L * length(item.getRequest().getDescription());
+            }
+            for (CommentDto comment : item.getComments()) {
+                bytes += OBJECT_BYTES + 2L * (length(comment.getText()) + length(comment.getAuthorName()));
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
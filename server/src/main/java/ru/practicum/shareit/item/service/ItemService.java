@@ -1,8 +1,12 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.data.domain.Window;
 import ru.practicum.shareit.item.dto.*;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface ItemService {
         ItemDto addItem(NewItemDto itemDto, Long userId);
@@ -11,9 +15,25 @@ public interface ItemService {
 
         ItemDto getItem(Long itemId);
 
+        ItemDto getItem(Long itemId, String version);
+
+        Optional<String> getItemVersion(Long itemId);
+
         Collection<ItemDto> getItems(Long userId);
 
         Collection<ItemDto> searchItems(String text);
 
+        Collection<ItemDto> searchItems(String text, LocalDateTime from, LocalDateTime to);
+
+        List<ItemDto> searchItems(String text, LocalDateTime from, LocalDateTime to, int offset, int size);
+
         CommentDto addComment(Long itemId, Long userId, CommentRequestDto commentDto);
+
+        Window<CommentDto> getComments(Long itemId, String cursor, int size);
+
+        Collection<ItemDto> searchItemsFuzzy(String text, LocalDateTime from, LocalDateTime to);
+
+        List<String> suggestNames(String prefix, int size);
+
+        List<FreeIntervalDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 }
@@ -1,11 +1,18 @@
 package ru.practicum.shareit.item.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.hibernate.Hibernate;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.ItemBookingDates;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.NotFoundException;
@@ -16,6 +23,7 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.CommentRepository;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.mapper.UserMapper;
@@ -25,19 +33,34 @@ import ru.practicum.shareit.user.storage.UserRepository;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final List<BookingStatus> BLOCKING_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final int MAX_CORRECTIONS_PER_TERM = 3;
+    private static final int MAX_FUZZY_TERMS = 10;
+    private static final int MAX_FUZZY_ITEMS = 1000;
+    static final int LATEST_COMMENTS = 3;
+    private static final String COMMENT_CURSOR_KEY = "created";
+    private static final Sort COMMENT_PAGE_SORT = Sort.by(Sort.Order.desc(COMMENT_CURSOR_KEY), Sort.Order.desc("id"));
+
     private final ItemRepository itemStorage;
     private final UserServiceImpl userService;
     private final UserRepository userStorage;
     private final CommentRepository commentStorage;
     private final BookingRepository bookingStorage;
     private final ItemRequestRepository itemRequestRepository;
+    private final TermDictionary termDictionary;
+    private final ItemNameIndex nameIndex;
+    private final ItemSearchCache searchCache;
+    private final ItemCache itemCache;
+    private final EntityManager entityManager;
 
 
     @Override
@@ -47,10 +70,17 @@ public class ItemServiceImpl implements ItemService {
         Item item = ItemMapper.toItem(itemDto);
         if (itemDto.getRequestId() != null) {
             ItemRequest request = validateRequest(itemDto.getRequestId());
+            entityManager.lock(request, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
             item.setRequest(request);
         }
         item.setOwner(user);
-        return ItemMapper.toItemDto(itemStorage.save(item));
+        Item savedItem = itemStorage.save(item);
+        termDictionary.addAfterCommit(savedItem.getId(), savedItem.getName(), savedItem.getDescription());
+        if (savedItem.getAvailable()) {
+            nameIndex.addAfterCommit(savedItem.getName(), savedItem.getBookingsCount());
+        }
+        searchCache.invalidateAfterCommit(savedItem.getId(), savedItem.getName(), savedItem.getDescription());
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
@@ -61,6 +91,10 @@ public class ItemServiceImpl implements ItemService {
         if (!item.getOwner().getId().equals(userId)) {
             throw new NotFoundException("User is not the owner of the item");
         }
+        searchCache.invalidateAfterCommit(itemId, item.getName(), item.getDescription());
+        String previousName = item.getName();
+        boolean wasAvailable = item.getAvailable();
+        boolean renamed = itemDto.getName() != null && !itemDto.getName().equals(item.getName());
         if (itemDto.getName() != null) {
             item.setName(itemDto.getName());
         }
@@ -70,37 +104,57 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             item.setAvailable(itemDto.getAvailable());
         }
-        return ItemMapper.toItemDto(item);
+        if (renamed && item.getRequest() != null) {
+            entityManager.lock(item.getRequest(), LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        }
+        if (renamed || wasAvailable != item.getAvailable()) {
+            if (wasAvailable) {
+                nameIndex.removeAfterCommit(previousName, item.getBookingsCount());
+            }
+            if (item.getAvailable()) {
+                nameIndex.addAfterCommit(item.getName(), item.getBookingsCount());
+            }
+        }
+        termDictionary.addAfterCommit(itemId, item.getName(), item.getDescription());
+        searchCache.invalidateAfterCommit(itemId, item.getName(), item.getDescription());
+        itemCache.invalidateAfterCommit(itemId);
+        return toItemDtos(List.of(item)).get(0);
     }
 
     @Override
     public ItemDto getItem(Long itemId) {
-        return ItemMapper.toItemDto(validateNotFound(itemId));
+        return getItem(itemId, null);
     }
 
     @Override
-    public Collection<ItemDto> getItems(Long userId) {
-        List<Item> items = itemStorage.findByOwnerId(userId);
-        List<Booking> allBookings = bookingStorage.findApprovedBookingsForItems(items);
-        Map<Long, List<Booking>> bookingsByItem = allBookings.stream()
-                .collect(Collectors.groupingBy(b -> b.getItem().getId()));
-        LocalDateTime now = LocalDateTime.now();
-        return items.stream()
-                .map(item -> {
-                    ItemDto dto = ItemMapper.toItemDto(item);
-                    List<Booking> itemBookings = bookingsByItem.getOrDefault(item.getId(), Collections.emptyList());
-
-                    Optional<Booking> lastBooking = itemBookings.stream()
-                            .filter(b -> b.getEnd().isBefore(now))
-                            .max(Comparator.comparing(Booking::getEnd));
-
-                    Optional<Booking> nextBooking = itemBookings.stream()
-                            .filter(b -> b.getStart().isAfter(now))
-                            .min(Comparator.comparing(Booking::getStart));
+    public ItemDto getItem(Long itemId, String version) {
+        return itemCache.get(itemId, version, () -> toItemDtos(List.of(validateNotFound(itemId))).get(0));
+    }
 
-                    lastBooking.ifPresent(b -> dto.setLastBooking(b.getEnd().toLocalDate()));
-                    nextBooking.ifPresent(b -> dto.setNextBooking(b.getStart().toLocalDate()));
+    @Override
+    public Optional<String> getItemVersion(Long itemId) {
+        return itemStorage.findVersionTag(itemId);
+    }
 
+    @Override
+    public Collection<ItemDto> getItems(Long userId) {
+        List<Item> items = itemStorage.findByOwnerId(userId);
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemBookingDates> datesByItem = bookingStorage.findBookingDatesByItemIds(
+                        items.stream().map(Item::getId).toList(), LocalDateTime.now())
+                .stream()
+                .collect(Collectors.toMap(ItemBookingDates::getItemId, Function.identity()));
+        return toItemDtos(items).stream()
+                .map(dto -> {
+                    ItemBookingDates dates = datesByItem.get(dto.getId());
+                    if (dates != null) {
+                        Optional.ofNullable(dates.getLastBooking())
+                                .ifPresent(last -> dto.setLastBooking(last.toLocalDate()));
+                        Optional.ofNullable(dates.getNextBooking())
+                                .ifPresent(next -> dto.setNextBooking(next.toLocalDate()));
+                    }
                     return dto;
                 })
                 .collect(Collectors.toList());
@@ -109,9 +163,82 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public Collection<ItemDto> searchItems(String text) {
-        return itemStorage.search(text).stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+        return searchCache.get(text, () -> toItemDtos(itemStorage.search(text)));
+    }
+
+    @Override
+    public Collection<ItemDto> searchItems(String text, LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return searchItems(text);
+        }
+        validateWindow(from, to);
+        return toItemDtos(itemStorage.searchAvailable(text, from, to));
+    }
+
+    @Override
+    public List<ItemDto> searchItems(String text, LocalDateTime from, LocalDateTime to, int offset, int size) {
+        if (offset < 0 || size < 1) {
+            throw new BadRequestException("Offset should not be negative and size should be positive while current " +
+                    "offset is " + offset + " and size is " + size);
+        }
+        List<Item> items;
+        if (from == null && to == null) {
+            items = itemStorage.searchRanked(text, offset, size);
+        } else {
+            validateWindow(from, to);
+            items = itemStorage.searchAvailableRanked(text, from, to, offset, size);
+        }
+        return toItemDtos(items);
+    }
+
+    @Override
+    public Collection<ItemDto> searchItemsFuzzy(String text, LocalDateTime from, LocalDateTime to) {
+        boolean windowed = from != null || to != null;
+        if (windowed) {
+            validateWindow(from, to);
+        }
+        if (text.isBlank()) {
+            return List.of();
+        }
+        List<String> terms = new ArrayList<>();
+        terms.add(text.strip().toLowerCase(Locale.ROOT));
+        TermDictionary.tokenize(text)
+                .flatMap(term -> termDictionary.correct(term, MAX_CORRECTIONS_PER_TERM).stream())
+                .distinct()
+                .limit(MAX_FUZZY_TERMS)
+                .forEach(terms::add);
+        Set<Long> corrected = termDictionary.findItemIds(terms.subList(1, terms.size()), MAX_FUZZY_ITEMS);
+        List<Item> matches = windowed
+                ? itemStorage.searchAvailableIncluding(terms.get(0), corrected, from, to)
+                : itemStorage.searchIncluding(terms.get(0), corrected);
+        Map<Item, Integer> ranks = new HashMap<>();
+        for (Item item : matches) {
+            String itemText = (item.getName() + " " + item.getDescription()).toLowerCase(Locale.ROOT);
+            for (int rank = 0; rank < terms.size(); rank++) {
+                if (itemText.contains(terms.get(rank))) {
+                    ranks.put(item, rank);
+                    break;
+                }
+            }
+        }
+        return toItemDtos(ranks.keySet().stream()
+                .sorted(Comparator.comparing((Item item) -> ranks.get(item)).thenComparing(Item::getId))
+                .toList());
+    }
+
+    @Override
+    public List<String> suggestNames(String prefix, int size) {
+        if (size < 1) {
+            throw new BadRequestException("Size should be positive while current size is " + size);
+        }
+        if (size > ItemNameIndex.MAX_SUGGESTIONS) {
+            throw new BadRequestException("Size should not exceed " + ItemNameIndex.MAX_SUGGESTIONS +
+                    " while current size is " + size);
+        }
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        return nameIndex.suggest(prefix.strip(), size);
     }
 
     @Override
@@ -126,9 +253,67 @@ public class ItemServiceImpl implements ItemService {
 
         Comment comment = CommentMapper.requestToComment(commentDto, item, author);
         Comment savedComment = commentStorage.save(comment);
+        itemStorage.incrementCommentsCount(itemId);
+        searchCache.invalidateAfterCommit(itemId);
+        itemCache.invalidateAfterCommit(itemId);
         return CommentMapper.toCommentDto(savedComment);
     }
 
+    @Override
+    public Window<CommentDto> getComments(Long itemId, String cursor, int size) {
+        Limit limit = KeysetCursor.limit(size);
+        if (!itemStorage.existsById(itemId)) {
+            throw new NotFoundException("Item " + itemId + " not found");
+        }
+        ScrollPosition position = KeysetCursor.decode(cursor, COMMENT_CURSOR_KEY);
+        return commentStorage.findByItemId(itemId, position, COMMENT_PAGE_SORT, limit)
+                .map(CommentMapper::toCommentDto);
+    }
+
+    @Override
+    public List<FreeIntervalDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        validateWindow(from, to);
+        if (!itemStorage.existsById(itemId)) {
+            throw new NotFoundException("Item " + itemId + " not found");
+        }
+        List<FreeIntervalDto> free = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        try (Stream<BookingInterval> bookings = bookingStorage.streamIntervals(itemId, from, to, BLOCKING_STATUSES)) {
+            for (BookingInterval booking : (Iterable<BookingInterval>) bookings::iterator) {
+                if (booking.getStart().isAfter(freeFrom)) {
+                    free.add(new FreeIntervalDto(freeFrom, booking.getStart()));
+                }
+                if (booking.getEnd().isAfter(freeFrom)) {
+                    freeFrom = booking.getEnd();
+                }
+            }
+        }
+        if (freeFrom.isBefore(to)) {
+            free.add(new FreeIntervalDto(freeFrom, to));
+        }
+        return free;
+    }
+
+    private List<ItemDto> toItemDtos(List<Item> items) {
+        List<Long> commentedItemIds = items.stream()
+                .filter(item -> item.getCommentsCount() > 0)
+                .map(Item::getId)
+                .toList();
+        Map<Long, List<Comment>> latestComments = commentedItemIds.isEmpty() ? Map.of() :
+                commentStorage.findLatestByItemIds(commentedItemIds, LATEST_COMMENTS).stream()
+                        .collect(Collectors.groupingBy(comment -> comment.getItem().getId()));
+        return items.stream()
+                .map(item -> ItemMapper.toItemDto(item, latestComments.getOrDefault(item.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    private void validateWindow(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new BadRequestException("The start of the window " + from +
+                    " should be before its end " + to);
+        }
+    }
+
     private ItemRequest validateRequest(Long id) {
         return itemRequestRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Request " + id + " not found"));
@@ -146,7 +331,6 @@ public class ItemServiceImpl implements ItemService {
                     return e;
                 }
         );
-        Hibernate.initialize(item.getComments());
         return item;
     }
 }
@@ -0,0 +1,191 @@
+package ru.practicum.shareit.item.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trie of item names for prefix completion. A name is reachable from the start of each of its
+ * words, so "Мини дрель" completes both "ми" and "дре", and matching ignores case. Every node
+ * keeps the most booked names below it, so a lookup only walks the prefix; a change re-ranks the
+ * nodes on the changed name's paths. A name counts the items that carry it and their bookings
+ * and disappears with its last item.
+ */
+class NameTrie {
+    private static final Comparator<Name> POPULARITY = Comparator.comparingLong((Name name) -> name.bookings)
+            .reversed()
+            .thenComparing(name -> name.value);
+
+    private final int maxCompletions;
+    private final Node root = new Node();
+    private final Map<String, Name> names = new HashMap<>();
+
+    NameTrie(int maxCompletions) {
+        this.maxCompletions = maxCompletions;
+    }
+
+    void add(String value, long bookings) {
+        for (String key : insert(value, bookings)) {
+            rank(path(key));
+        }
+    }
+
+    /**
+     * Adds a name without re-ranking, for bulk loading; {@link #rankAll()} must follow.
+     */
+    void load(String value, long bookings) {
+        insert(value, bookings);
+    }
+
+    void rankAll() {
+        Deque<Node> pending = new ArrayDeque<>(List.of(root));
+        Deque<Node> parentsFirst = new ArrayDeque<>();
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            parentsFirst.push(node);
+            pending.addAll(node.children.values());
+        }
+        parentsFirst.forEach(this::rank);
+    }
+
+    void remove(String value, long bookings) {
+        Name name = names.get(value);
+        if (name == null) {
+            return;
+        }
+        name.items--;
+        name.bookings -= bookings;
+        if (name.items > 0) {
+            update(name);
+            return;
+        }
+        names.remove(value);
+        for (String key : keys(value)) {
+            List<Node> path = path(key);
+            if (path.size() <= key.length()) {
+                continue;
+            }
+            path.get(path.size() - 1).ends.remove(name);
+            for (int i = key.length(); i > 0 && path.get(i).isEmpty(); i--) {
+                path.get(i - 1).children.remove(key.charAt(i - 1));
+            }
+            rank(path);
+        }
+    }
+
+    void addBookings(String value, long bookings) {
+        Name name = names.get(value);
+        if (name != null) {
+            name.bookings += bookings;
+            update(name);
+        }
+    }
+
+    List<String> complete(String prefix, int limit) {
+        String key = prefix.toLowerCase(Locale.ROOT);
+        List<Node> path = path(key);
+        if (key.isEmpty() || path.size() <= key.length()) {
+            return List.of();
+        }
+        return path.get(path.size() - 1).top.stream()
+                .limit(limit)
+                .map(name -> name.value)
+                .toList();
+    }
+
+    int size() {
+        return names.size();
+    }
+
+    private Set<String> insert(String value, long bookings) {
+        Name name = names.computeIfAbsent(value, Name::new);
+        name.items++;
+        name.bookings += bookings;
+        Set<String> keys = keys(value);
+        for (String key : keys) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            }
+            node.ends.add(name);
+        }
+        return keys;
+    }
+
+    private void update(Name name) {
+        for (String key : keys(name.value)) {
+            rank(path(key));
+        }
+    }
+
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.get(key.charAt(i));
+            if (node == null) {
+                break;
+            }
+            path.add(node);
+        }
+        return path;
+    }
+
+    private void rank(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            rank(path.get(i));
+        }
+    }
+
+    private void rank(Node node) {
+        if (node.ends.isEmpty() && node.children.size() == 1) {
+            node.top = node.children.values().iterator().next().top;
+            return;
+        }
+        Set<Name> candidates = new HashSet<>(node.ends);
+        node.children.values().forEach(child -> candidates.addAll(child.top));
+        node.top = candidates.stream()
+                .sorted(POPULARITY)
+                .limit(maxCompletions)
+                .toList();
+    }
+
+    private static Set<String> keys(String value) {
+        String lowerCase = value.toLowerCase(Locale.ROOT);
+        Set<String> keys = new HashSet<>();
+        for (int start = 0; start < lowerCase.length(); start++) {
+            if (lowerCase.charAt(start) != ' ' && (start == 0 || lowerCase.charAt(start - 1) == ' ')) {
+                keys.add(lowerCase.substring(start));
+            }
+        }
+        return keys;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final Set<Name> ends = new HashSet<>();
+        private List<Name> top = List.of();
+
+        private boolean isEmpty() {
+            return ends.isEmpty() && children.isEmpty();
+        }
+    }
+
+    private static final class Name {
+        private final String value;
+        private int items;
+        private long bookings;
+
+        private Name(String value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemText;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.transaction.AfterCommit;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Dictionary of the words used in item names and descriptions, used to correct misspelled search
+ * terms. Each word also lists the items that used it, so corrected terms are resolved to item ids
+ * without a text query. The lists only grow between rebuilds: callers load the items by id and
+ * must recheck their text, so a stale dictionary can miss a correction but never returns a wrong
+ * item. The dictionary is rebuilt from the database periodically and new words are added after
+ * each committed item change.
+ */
+@Slf4j
+@Component
+public class TermDictionary {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int LONG_TERM_LENGTH = 6;
+
+    private final ItemRepository itemStorage;
+    private final TransactionTemplate transactionTemplate;
+    private volatile BkTree terms = new BkTree();
+    private volatile Map<String, Set<Long>> itemIds = new HashMap<>();
+
+    @Autowired
+    public TermDictionary(ItemRepository itemStorage, TransactionTemplate transactionTemplate) {
+        this.itemStorage = itemStorage;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.search.dictionary.refresh-interval}")
+    public void rebuild() {
+        BkTree rebuilt = new BkTree();
+        Map<String, Set<Long>> rebuiltItemIds = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ItemText> texts = itemStorage.streamTexts()) {
+                texts.forEach(text ->
+                        add(rebuilt, rebuiltItemIds, text.getId(), text.getName(), text.getDescription()));
+            }
+        });
+        synchronized (this) {
+            terms = rebuilt;
+            itemIds = rebuiltItemIds;
+        }
+        log.debug("Search term dictionary rebuilt with {} terms", rebuilt.size());
+    }
+
+    public void addAfterCommit(Long itemId, String... texts) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                add(terms, itemIds, itemId, texts);
+            }
+        });
+    }
+
+    public List<String> correct(String term, int limit) {
+        String normalized = term.toLowerCase(Locale.ROOT);
+        int maxDistance = normalized.length() >= LONG_TERM_LENGTH ? 2 : 1;
+        Map<String, Integer> matches;
+        synchronized (this) {
+            matches = terms.search(normalized, maxDistance);
+        }
+        return matches.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    public synchronized Set<Long> findItemIds(Collection<String> terms, int limit) {
+        Set<Long> found = new LinkedHashSet<>();
+        for (String term : terms) {
+            for (Long itemId : itemIds.getOrDefault(term, Set.of())) {
+                if (found.size() == limit) {
+                    return found;
+                }
+                found.add(itemId);
+            }
+        }
+        return found;
+    }
+
+    public static Stream<String> tokenize(String text) {
+        if (text == null) {
+            return Stream.empty();
+        }
+        return Arrays.stream(SEPARATORS.split(text.toLowerCase(Locale.ROOT)))
+                .filter(term -> term.length() >= MIN_TERM_LENGTH);
+    }
+
+    private static void add(BkTree terms, Map<String, Set<Long>> itemIds, Long itemId, String... texts) {
+        Arrays.stream(texts)
+                .flatMap(TermDictionary::tokenize)
+                .forEach(term -> {
+                    terms.add(term);
+                    itemIds.computeIfAbsent(term, key -> new HashSet<>()).add(itemId);
+                });
+    }
+}
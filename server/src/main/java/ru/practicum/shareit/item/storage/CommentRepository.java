@@ -1,13 +1,30 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByItemId(Long itemId);
 
-    List<Comment> findByItemIn(List<Item> items);
+    @EntityGraph(attributePaths = "author")
+    Window<Comment> findByItemId(Long itemId, ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author " +
+            "WHERE c.id IN (SELECT ranked.id FROM (" +
+            "SELECT latest.id AS id, row_number() OVER (" +
+            "PARTITION BY latest.item.id ORDER BY latest.created DESC, latest.id DESC) AS rowNumber " +
+            "FROM Comment latest WHERE latest.item.id IN :itemIds) ranked " +
+            "WHERE ranked.rowNumber <= :limit) " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findLatestByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
 }
@@ -1,22 +1,105 @@
 package ru.practicum.shareit.item.storage;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.ItemNamePopularity;
+import ru.practicum.shareit.item.dto.ItemText;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemSearchRepository {
+    @EntityGraph(Item.DETAILS_GRAPH)
+    @Override
+    Optional<Item> findById(Long id);
+
+    @EntityGraph(Item.DETAILS_GRAPH)
     List<Item> findByOwnerId(Long ownerId);
 
+    @Query("SELECT i.id FROM Item i WHERE i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT concat(cast(i.version as String), '-', cast(o.version as String), '-', " +
+            "cast(count(c) as String), '-', cast(coalesce(sum(a.version), 0) as String)) " +
+            "FROM Item i JOIN i.owner o LEFT JOIN Comment c ON c.item = i LEFT JOIN c.author a " +
+            "WHERE i.id = :id GROUP BY i.version, o.version")
+    Optional<String> findVersionTag(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.commentsCount = i.commentsCount + 1, i.version = i.version + 1 WHERE i.id = :id")
+    int incrementCommentsCount(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.bookingsCount = i.bookingsCount + :count WHERE i.id = :id")
+    int addBookingsCount(@Param("id") Long id, @Param("count") long count);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    @EntityGraph(Item.DETAILS_GRAPH)
     @Query("SELECT item FROM Item item " +
             "WHERE (upper(item.name) LIKE upper(concat('%', :text, '%')) " +
             "OR upper(item.description) LIKE upper(concat('%', :text, '%'))) " +
             "AND item.available = true")
     List<Item> search(@Param("text") String text);
 
+    @EntityGraph(Item.DETAILS_GRAPH)
+    @Query("SELECT item FROM Item item " +
+            "WHERE (upper(item.name) LIKE upper(concat('%', :text, '%')) " +
+            "OR upper(item.description) LIKE upper(concat('%', :text, '%'))) " +
+            "AND item.available = true " +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b " +
+            "WHERE b.item = item " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start < :to " +
+            "AND b.end > :from)")
+    List<Item> searchAvailable(@Param("text") String text,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to);
+
+    @EntityGraph(Item.DETAILS_GRAPH)
+    @Query("SELECT item FROM Item item " +
+            "WHERE (upper(item.name) LIKE upper(concat('%', :text, '%')) " +
+            "OR upper(item.description) LIKE upper(concat('%', :text, '%')) " +
+            "OR item.id IN :ids) " +
+            "AND item.available = true")
+    List<Item> searchIncluding(@Param("text") String text, @Param("ids") Collection<Long> ids);
+
+    @EntityGraph(Item.DETAILS_GRAPH)
+    @Query("SELECT item FROM Item item " +
+            "WHERE (upper(item.name) LIKE upper(concat('%', :text, '%')) " +
+            "OR upper(item.description) LIKE upper(concat('%', :text, '%')) " +
+            "OR item.id IN :ids) " +
+            "AND item.available = true " +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b " +
+            "WHERE b.item = item " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start < :to " +
+            "AND b.end > :from)")
+    List<Item> searchAvailableIncluding(@Param("text") String text,
+                                        @Param("ids") Collection<Long> ids,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
+    @Query("SELECT item.name AS name, item.bookingsCount AS bookingsCount FROM Item item " +
+            "WHERE item.available = true")
+    Stream<ItemNamePopularity> streamNamePopularity();
+
+    @Query("SELECT item.id AS id, item.name AS name, item.description AS description FROM Item item " +
+            "WHERE item.available = true")
+    Stream<ItemText> streamTexts();
+
     List<Item> findByRequestId(Long requestId);
 
     @Query("SELECT i FROM Item i " +
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.storage;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemSearchRepository {
+    List<Item> searchRanked(String text, int offset, int size);
+
+    List<Item> searchAvailableRanked(String text, LocalDateTime from, LocalDateTime to, int offset, int size);
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item.storage;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked item search paged in SQL. PostgreSQL ranks matches with ts_rank_cd over the weighted
+ * items.search_vector column, where names weigh more than descriptions and both are stemmed with
+ * the russian and english configurations, so "дрели" finds "дрель" and "drills" finds "drill".
+ * Substring matches are kept so that ranking never narrows the plain search. Other databases have
+ * no full-text search; there items are ranked by how closely the name matches the query.
+ */
+public class ItemSearchRepositoryImpl implements ItemSearchRepository {
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+    private static final String NAME_MATCH_RANK = "CASE WHEN upper(item.name) = upper(:text) THEN 0 " +
+            "WHEN upper(item.name) LIKE upper(concat(:text, '%')) THEN 1 " +
+            "WHEN upper(item.name) LIKE upper(concat('%', :text, '%')) THEN 2 " +
+            "ELSE 3 END";
+    private static final String TEXT_MATCH = "(upper(item.name) LIKE upper(concat('%', :text, '%')) " +
+            "OR upper(item.description) LIKE upper(concat('%', :text, '%'))) ";
+
+    private static final String RANKED = "SELECT item FROM Item item " +
+            "WHERE " + TEXT_MATCH +
+            "AND item.available = true ";
+    private static final String RANKED_AVAILABLE = RANKED +
+            "AND NOT EXISTS (SELECT b.id FROM Booking b " +
+            "WHERE b.item = item " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start < :to " +
+            "AND b.end > :from) ";
+    private static final String RANKED_ORDER = "ORDER BY " + NAME_MATCH_RANK + ", item.id";
+
+    private static final String FULL_TEXT = "SELECT item.id FROM items item " +
+            "CROSS JOIN (SELECT plainto_tsquery('russian', :text) || plainto_tsquery('english', :text) AS terms) q " +
+            "WHERE (item.search_vector @@ q.terms OR " + TEXT_MATCH + ") " +
+            "AND item.is_available = true ";
+    private static final String FULL_TEXT_AVAILABLE = FULL_TEXT +
+            "AND NOT EXISTS (SELECT 1 FROM bookings b " +
+            "WHERE b.item_id = item.id " +
+            "AND b.status = 'APPROVED' " +
+            "AND b.start_date < :to " +
+            "AND b.end_date > :from) ";
+    private static final String FULL_TEXT_ORDER = "ORDER BY ts_rank_cd(item.search_vector, q.terms) DESC, " +
+            NAME_MATCH_RANK + ", item.id " +
+            "OFFSET :offset LIMIT :size";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Item> searchRanked(String text, int offset, int size) {
+        if (fullText()) {
+            return findRanked(entityManager.createNativeQuery(FULL_TEXT + FULL_TEXT_ORDER, Long.class)
+                    .setParameter("text", text), offset, size);
+        }
+        return entityManager.createQuery(RANKED + RANKED_ORDER, Item.class)
+                .setParameter("text", text)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph(Item.DETAILS_GRAPH))
+                .setFirstResult(offset)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    @Override
+    public List<Item> searchAvailableRanked(String text, LocalDateTime from, LocalDateTime to,
+                                            int offset, int size) {
+        if (fullText()) {
+            return findRanked(entityManager.createNativeQuery(FULL_TEXT_AVAILABLE + FULL_TEXT_ORDER, Long.class)
+                    .setParameter("text", text)
+                    .setParameter("from", from)
+                    .setParameter("to", to), offset, size);
+        }
+        return entityManager.createQuery(RANKED_AVAILABLE + RANKED_ORDER, Item.class)
+                .setParameter("text", text)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph(Item.DETAILS_GRAPH))
+                .setFirstResult(offset)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    private List<Item> findRanked(Query idQuery, int offset, int size) {
+        @SuppressWarnings("unchecked")
+        List<Long> ids = idQuery.setParameter("offset", offset)
+                .setParameter("size", size)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        TypedQuery<Item> items = entityManager.createQuery("SELECT item FROM Item item WHERE item.id IN :ids", Item.class)
+                .setParameter("ids", ids)
+                .setHint(FETCH_GRAPH, entityManager.getEntityGraph(Item.DETAILS_GRAPH));
+        Map<Long, Item> byId = items.getResultStream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private boolean fullText() {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import ru.practicum.shareit.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Opaque cursor over a (timestamp, id) keyset. The encoded value is the position of the last
+ * row of a page, so the next page continues right after it without an OFFSET scan.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class KeysetCursor {
+    public static final String HEADER = "X-Next-Cursor";
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String ID = "id";
+    private static final String SEPARATOR = "|";
+
+    public static Limit limit(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size should be between 1 and " + MAX_PAGE_SIZE +
+                    " while current size is " + size);
+        }
+        return Limit.of(size);
+    }
+
+    public static ScrollPosition decode(String cursor, String timeKey) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            LocalDateTime time = LocalDateTime.parse(decoded.substring(0, separator));
+            Long id = Long.valueOf(decoded.substring(separator + 1));
+            return ScrollPosition.forward(Map.of(timeKey, time, ID, id));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public static String next(Window<?> window) {
+        if (window.isEmpty() || !window.hasNext()) {
+            return null;
+        }
+        Map<String, ?> keys = ((KeysetScrollPosition) window.positionAt(window.size() - 1)).getKeys();
+        Object time = keys.entrySet().stream()
+                .filter(key -> !ID.equals(key.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElseThrow();
+        String raw = time + SEPARATOR + keys.get(ID);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
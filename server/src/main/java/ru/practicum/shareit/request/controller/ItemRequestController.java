@@ -3,8 +3,11 @@ package ru.practicum.shareit.request.controller;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.http.ETags;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.NewItemRequestDto;
 import ru.practicum.shareit.request.dto.ResponseItemRequestDto;
@@ -57,10 +60,11 @@ public class ItemRequestController {
     }
 
     @GetMapping("/{requestId}")
-    @ResponseStatus(HttpStatus.OK)
-    public ResponseItemRequestDto getItemRequest(@PathVariable Long requestId) {
+    public ResponseEntity<ResponseItemRequestDto> getItemRequest(@PathVariable Long requestId,
+                                                                 @RequestHeader HttpHeaders headers) {
         log.debug("GET/requests/id: returning request {}", requestId);
-        return itemRequestService.getItemRequest(requestId);
+        return ETags.respond(headers, itemRequestService.getItemRequestVersion(requestId),
+                version -> itemRequestService.getItemRequest(requestId));
     }
 
 }
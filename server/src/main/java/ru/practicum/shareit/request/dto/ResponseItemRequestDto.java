@@ -3,7 +3,7 @@ package ru.practicum.shareit.request.dto;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import ru.practicum.shareit.item.dto.ItemReturnedDto;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.dto.UserShortDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,7 +13,7 @@ import java.util.List;
 public class ResponseItemRequestDto {
     private Long id;
     private String description;
-    private User requestor;
+    private UserShortDto requestor;
     private LocalDateTime created;
     private List<ItemReturnedDto> items;
 }
@@ -3,9 +3,11 @@ package ru.practicum.shareit.request.mapper;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestShortDto;
 import ru.practicum.shareit.request.dto.NewItemRequestDto;
 import ru.practicum.shareit.request.dto.ResponseItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.mapper.UserMapper;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -25,17 +27,26 @@ public class ItemRequestMapper {
         return new ResponseItemRequestDto(
                 request.getId(),
                 request.getDescription(),
-                request.getRequestor(),
+                UserMapper.toUserShortDto(request.getRequestor()),
                 request.getCreated(),
                 new ArrayList<>()
         );
     }
 
+    public static ItemRequestShortDto toItemRequestShortDto(ItemRequest request) {
+        return request == null ? null : new ItemRequestShortDto(request.getId(), request.getDescription());
+    }
+
+    public static ItemRequest toItemRequest(ItemRequestShortDto requestDto) {
+        return requestDto == null ? null :
+                new ItemRequest(requestDto.getId(), requestDto.getDescription(), null, null);
+    }
+
     public static ItemRequestDto toItemRequestDto(ItemRequest request) {
         return new ItemRequestDto(
                 request.getId(),
                 request.getDescription(),
-                request.getRequestor(),
+                UserMapper.toUserShortDto(request.getRequestor()),
                 request.getCreated()
         );
     }
@@ -8,12 +8,15 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "requests")
+@NamedEntityGraph(name = ItemRequest.DETAILS_GRAPH, attributeNodes = @NamedAttributeNode("requestor"))
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class ItemRequest {
+    public static final String DETAILS_GRAPH = "ItemRequest.details";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -21,9 +24,17 @@ public class ItemRequest {
     @Column(name = "description", nullable = false)
     private String description;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "requestor_id", referencedColumnName = "id")
     private User requestor;
 
     private LocalDateTime created;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    public ItemRequest(Long id, String description, User requestor, LocalDateTime created) {
+        this(id, description, requestor, created, 0);
+    }
 }
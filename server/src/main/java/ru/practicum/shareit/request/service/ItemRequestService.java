@@ -5,6 +5,7 @@ import ru.practicum.shareit.request.dto.NewItemRequestDto;
 import ru.practicum.shareit.request.dto.ResponseItemRequestDto;
 
 import java.util.Collection;
+import java.util.Optional;
 
 public interface ItemRequestService {
 
@@ -15,4 +16,7 @@ public interface ItemRequestService {
     Collection<ResponseItemRequestDto> getAllItemRequests(Long userId);
 
     ResponseItemRequestDto getItemRequest(Long requestId);
+
+    Optional<String> getItemRequestVersion(Long requestId);
+
 }
@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -55,6 +56,11 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return responseDto;
     }
 
+    @Override
+    public Optional<String> getItemRequestVersion(Long requestId) {
+        return itemRequestStorage.findVersionTag(requestId);
+    }
+
     @Override
     public Collection<ResponseItemRequestDto> getItemRequests(Long userId) {
         User user = UserMapper.toUser(userService.getUser(userId));
@@ -1,15 +1,28 @@
 package ru.practicum.shareit.request.storage;
 
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    @EntityGraph(ItemRequest.DETAILS_GRAPH)
+    @Override
+    Optional<ItemRequest> findById(Long id);
+
+    @EntityGraph(ItemRequest.DETAILS_GRAPH)
     List<ItemRequest> findByRequestorId(Long requestorId, Sort sort);
 
+    @EntityGraph(ItemRequest.DETAILS_GRAPH)
     @Query("SELECT ir FROM ItemRequest ir WHERE ir.requestor.id <> :requestorId ORDER BY ir.created DESC")
     List<ItemRequest> findAllByRequestorIdNotOrderByCreatedDesc(Long requestorId);
+
+    @Query("SELECT concat(cast(ir.version as String), '-', cast(coalesce(u.version, 0) as String)) " +
+            "FROM ItemRequest ir LEFT JOIN ir.requestor u WHERE ir.id = :id")
+    Optional<String> findVersionTag(@Param("id") Long id);
 }
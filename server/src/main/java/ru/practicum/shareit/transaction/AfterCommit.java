@@ -0,0 +1,27 @@
+package ru.practicum.shareit.transaction;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers an action until the surrounding transaction commits, so in-memory state derived from the
+ * database never reflects a change that is later rolled back. Outside a transaction the action
+ * runs immediately.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class AfterCommit {
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.user.mapper;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserShortDto;
 import ru.practicum.shareit.user.model.User;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
@@ -15,6 +16,14 @@ public class UserMapper {
         );
     }
 
+    public static UserShortDto toUserShortDto(User user) {
+        return user == null ? null : new UserShortDto(user.getId(), user.getName());
+    }
+
+    public static User toUser(UserShortDto userDto) {
+        return userDto == null ? null : new User(userDto.getId(), userDto.getName(), null);
+    }
+
     public static User toUser(UserDto userDto) {
         return new User(
                 userDto.getId(),
@@ -22,4 +22,12 @@ public class User {
 
     @Column(name = "email", nullable = false, unique = true)
     private String email;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    public User(Long id, String name, String email) {
+        this(id, name, email, 0);
+    }
 }
@@ -6,6 +6,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.NotUniqueEmail;
+import ru.practicum.shareit.item.service.ItemCache;
+import ru.practicum.shareit.item.service.ItemSearchCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.dto.UpdateUserRequest;
@@ -19,6 +21,8 @@ import ru.practicum.shareit.user.storage.UserRepository;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     public final UserRepository userStorage;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemCache itemCache;
 
 
     @Override
@@ -40,6 +44,8 @@ public class UserServiceImpl implements UserService {
             validateEmail(userDto.getEmail());
             user.setEmail(userDto.getEmail());
         }
+        itemSearchCache.invalidateAllAfterCommit();
+        itemCache.invalidateAllAfterCommit();
         return UserMapper.toUserDto(user);
     }
 
@@ -53,6 +59,8 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(Long userId) {
         validateNotFound(userId);
         userStorage.deleteById(userId);
+        itemSearchCache.invalidateAllAfterCommit();
+        itemCache.invalidateAllAfterCommit();
     }
 
     private User validateNotFound(Long id) {
@@ -0,0 +1,4 @@
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comments_count BIGINT NOT NULL DEFAULT 0;
+UPDATE items SET comments_count = (SELECT COUNT(*) FROM comments c WHERE c.item_id = items.id);
+DROP INDEX IF EXISTS ix_comments_item;
+CREATE INDEX IF NOT EXISTS ix_comments_item_created ON comments (item_id, created DESC, id DESC);
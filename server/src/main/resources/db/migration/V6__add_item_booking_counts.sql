@@ -0,0 +1,2 @@
+ALTER TABLE items ADD COLUMN IF NOT EXISTS bookings_count BIGINT NOT NULL DEFAULT 0;
+UPDATE items SET bookings_count = (SELECT COUNT(*) FROM bookings b WHERE b.item_id = items.id);
@@ -0,0 +1,286 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemNameIndex;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.TermDictionary;
+import ru.practicum.shareit.item.storage.CommentRepository;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs EXPLAIN on the SQL that the services actually send and fails when a plan scans a table.
+ * The test owns its database so that the seed data can be committed and analyzed: without
+ * statistics H2 assumes every condition keeps half of the rows and plans accordingly.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:schema-index",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+                "ru.practicum.shareit.SchemaIndexIntegrationTest$CapturingInspector"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SchemaIndexIntegrationTest {
+    private static final int USER_COUNT = 20;
+    private static final int ITEMS_PER_USER = 5;
+    private static final int BOOKINGS_PER_ITEM = 5;
+    private static final Pattern TABLE_SCAN = Pattern.compile("PUBLIC\\.(\\w+)\\.tableScan");
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemSearchCache searchCache;
+
+    @Autowired
+    private TermDictionary termDictionary;
+
+    @Autowired
+    private ItemNameIndex nameIndex;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private final List<Item> items = new ArrayList<>();
+    private final List<Booking> bookings = new ArrayList<>();
+    private final List<ItemRequest> requests = new ArrayList<>();
+
+    @BeforeAll
+    void seed() {
+        List<User> users = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<User> persisted = new ArrayList<>();
+            for (int i = 0; i < USER_COUNT; i++) {
+                User user = persist(new User(null, "User " + i, "user" + i + "@email.com"));
+                persisted.add(user);
+                requests.add(persist(new ItemRequest(null, "Нужна дрель " + i, user, now.minusDays(i))));
+            }
+            for (int i = 0; i < USER_COUNT * ITEMS_PER_USER; i++) {
+                User itemOwner = persisted.get(i % USER_COUNT);
+                Item item = persist(new Item(null, "Дрель " + i, "Аккумуляторная дрель", true,
+                        itemOwner, requests.get((i + 1) % USER_COUNT), null, null));
+                items.add(item);
+                for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                    bookings.add(persist(new Booking(null, now.plusDays(j - 2), now.plusDays(j - 1), item,
+                            persisted.get((i + j + 1) % USER_COUNT),
+                            BookingStatus.values()[j % BookingStatus.values().length])));
+                }
+                persist(new Comment(null, "Отличная дрель", item, persisted.get((i + 1) % USER_COUNT), now));
+                item.setCommentsCount(1);
+            }
+            return persisted;
+        });
+        jdbcTemplate.execute("ANALYZE");
+        owner = users.get(0);
+        booker = users.get(1);
+    }
+
+    @BeforeEach
+    void setUp() {
+        searchCache.invalidateAll();
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void bookingStateQueries_ShouldUseIndexes(BookingState state) {
+        bookingService.getUserBookings(state, booker.getId());
+        bookingService.getUserBookings(state, booker.getId(), null, 10);
+        bookingService.getBookingsByOwner(state, owner.getId());
+        bookingService.getBookingsByOwner(state, owner.getId(), null, 10);
+
+        assertEquals(Set.of(), scannedTables());
+    }
+
+    @Test
+    void bookingCountQueries_ShouldUseIndexes() {
+        bookingService.getUserBookingCounts(booker.getId());
+        bookingService.getOwnerBookingCounts(owner.getId());
+
+        assertEquals(Set.of(), scannedTables());
+    }
+
+    @Test
+    void itemQueries_ShouldUseIndexes() {
+        Item item = items.get(0);
+        transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.findByOwnerId(owner.getId());
+            itemRepository.findIdsByOwnerId(owner.getId());
+            itemRepository.findVersionTag(item.getId());
+            itemRepository.findByRequestId(requests.get(0).getId());
+            itemRepository.findItemsForItemRequests(requests.subList(0, 3));
+        });
+        itemService.getItems(owner.getId());
+
+        assertEquals(Set.of(), scannedTables());
+    }
+
+    @Test
+    void requestQueries_ShouldUseIndexes() {
+        transactionTemplate.executeWithoutResult(status -> {
+            itemRequestRepository.findById(requests.get(0).getId());
+            itemRequestRepository.findByRequestorId(owner.getId(), Sort.by("created").descending());
+            itemRequestRepository.findVersionTag(requests.get(0).getId());
+        });
+
+        assertEquals(Set.of(), scannedTables());
+    }
+
+    @Test
+    void otherUsersRequestsQuery_ShouldOnlyScanRequests() {
+        transactionTemplate.executeWithoutResult(status ->
+                itemRequestRepository.findAllByRequestorIdNotOrderByCreatedDesc(owner.getId()));
+
+        // Every request but the caller's own is returned, so reading the table is the cheapest plan.
+        assertEquals(Set.of("REQUESTS"), scannedTables());
+    }
+
+    @Test
+    void commentQueries_ShouldUseIndexes() {
+        Long itemId = items.get(0).getId();
+        transactionTemplate.executeWithoutResult(status -> {
+            commentRepository.findByItemId(itemId);
+            commentRepository.findByItemId(itemId, ScrollPosition.keyset(),
+                    Sort.by(Sort.Order.desc("created"), Sort.Order.desc("id")), Limit.of(10));
+            commentRepository.findLatestByItemIds(items.stream().limit(3).map(Item::getId).toList(), 3);
+        });
+
+        assertEquals(Set.of(), scannedTables());
+    }
+
+    @Test
+    void bookingLookupQueries_ShouldUseIndexes() {
+        LocalDateTime now = LocalDateTime.now();
+        Long itemId = items.get(0).getId();
+        List<BookingStatus> statuses = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingRepository.existsOverlapping(itemId, now, now.plusDays(1), statuses);
+            try (var intervals = bookingRepository.streamIntervals(itemId, now, now.plusDays(5), statuses)) {
+                intervals.forEach(interval -> { });
+            }
+            bookingRepository.findOwnershipByIdIn(bookings.stream().limit(3).map(Booking::getId).toList());
+            bookingRepository.findIdsByStatusAndStartBefore(BookingStatus.WAITING, now, Limit.of(10));
+            bookingRepository.findVersionTag(bookings.get(0).getId(), booker.getId());
+        });
+
+        assertEquals(Set.of(), scannedTables());
+    }
+
+    @Test
+    void searchQueries_ShouldOnlyScanItems() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1);
+        itemService.searchItems("дрель");
+        itemService.searchItems("дрель", from, from.plusDays(1));
+        itemService.searchItems("дрель", null, null, 0, 10);
+        itemService.searchItems("дрель", from, from.plusDays(1), 0, 10);
+        itemService.searchItemsFuzzy("дрел", from, from.plusDays(1));
+
+        // Substring matches scan items here; PostgreSQL serves them from the trigram indexes.
+        assertEquals(Set.of("ITEMS"), scannedTables());
+    }
+
+    @Test
+    void indexRebuildQueries_ShouldOnlyScanItems() {
+        termDictionary.rebuild();
+        nameIndex.rebuild();
+
+        // Rebuilds read every available item by design.
+        assertEquals(Set.of("ITEMS"), scannedTables());
+    }
+
+    private Set<String> scannedTables() {
+        List<String> queries = List.copyOf(CapturingInspector.STATEMENTS);
+        assertFalse(queries.isEmpty(), "No queries were captured");
+        Set<String> tables = new TreeSet<>();
+        for (String query : queries) {
+            Matcher scan = TABLE_SCAN.matcher(explain(query));
+            while (scan.find()) {
+                tables.add(scan.group(1));
+            }
+        }
+        return tables;
+    }
+
+    private String explain(String query) {
+        return jdbcTemplate.query("EXPLAIN " + query, statement -> {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setObject(i, null);
+            }
+        }, plan -> plan.next() ? plan.getString(1) : "");
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.stripLeading().regionMatches(true, 0, "select", 0, "select".length())) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
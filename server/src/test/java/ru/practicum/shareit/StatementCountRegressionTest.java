@@ -0,0 +1,205 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingImportDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemCache;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Transactional
+class StatementCountRegressionTest {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final int ITEM_COUNT = 5;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ItemSearchCache searchCache;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private BookingService bookingService;
+
+    private User owner;
+    private User booker;
+    private User requestor;
+    private final List<Item> items = new ArrayList<>();
+    private final List<ItemRequest> requests = new ArrayList<>();
+    private Booking pastBooking;
+    private Booking waitingBooking;
+
+    @BeforeEach
+    void setUp() {
+        searchCache.invalidateAll();
+        itemCache.invalidateAll();
+        owner = persist(new User(null, "Owner", "owner@email.com"));
+        booker = persist(new User(null, "Booker", "booker@email.com"));
+        requestor = persist(new User(null, "Requestor", "requestor@email.com"));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            User author = persist(new User(null, "Author " + i, "author" + i + "@email.com"));
+            ItemRequest request = persist(new ItemRequest(null, "Request " + i, requestor, now.minusDays(i)));
+            Item item = persist(new Item(null, "Item " + i, "Description " + i, true, owner, request, null, null));
+            pastBooking = persist(new Booking(null, now.minusDays(i + 2), now.minusDays(i + 1),
+                    item, booker, BookingStatus.APPROVED));
+            waitingBooking = persist(new Booking(null, now.plusDays(i + 1), now.plusDays(i + 2),
+                    item, booker, BookingStatus.WAITING));
+            persist(new Comment(null, "Comment " + i, item, author, now));
+            item.setCommentsCount(1);
+            items.add(item);
+            requests.add(request);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    static Stream<Arguments> endpoints() {
+        return Stream.of(
+                endpoint("GET /items/{id}", 3,
+                        test -> get("/items/" + test.items.get(0).getId()).header(USER_HEADER, test.owner.getId())),
+                endpoint("GET /items", 3,
+                        test -> get("/items").header(USER_HEADER, test.owner.getId())),
+                endpoint("GET /items/search", 2,
+                        test -> get("/items/search").param("text", "item")),
+                endpoint("GET /bookings/{id}", 2,
+                        test -> get("/bookings/" + test.pastBooking.getId()).header(USER_HEADER, test.booker.getId())),
+                endpoint("PATCH /bookings/{id}", 2,
+                        test -> patch("/bookings/" + test.waitingBooking.getId())
+                                .param("approved", "true")
+                                .header(USER_HEADER, test.owner.getId())),
+                endpoint("GET /bookings", 2,
+                        test -> get("/bookings").header(USER_HEADER, test.booker.getId())),
+                endpoint("GET /bookings/owner", 3,
+                        test -> get("/bookings/owner").header(USER_HEADER, test.owner.getId())),
+                endpoint("GET /items/{id}/comments", 2,
+                        test -> get("/items/" + test.items.get(0).getId() + "/comments").param("size", "2")),
+                endpoint("GET /requests", 3,
+                        test -> get("/requests").header(USER_HEADER, test.requestor.getId())),
+                endpoint("GET /requests/all", 1,
+                        test -> get("/requests/all").header(USER_HEADER, test.owner.getId())),
+                endpoint("GET /requests/{id}", 3,
+                        test -> get("/requests/" + test.requests.get(0).getId()).header(USER_HEADER, test.owner.getId()))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void endpoint_ShouldStayWithinStatementBudget(String endpoint,
+                                                 long budget,
+                                                 Function<StatementCountRegressionTest, MockHttpServletRequestBuilder> request)
+            throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mvc.perform(request.apply(this)).andExpect(status().is2xxSuccessful());
+        entityManager.flush();
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= budget,
+                endpoint + " prepared " + statements + " statements while the budget is " + budget);
+    }
+
+    static Stream<Arguments> conditionalEndpoints() {
+        return Stream.of(
+                endpoint("GET /items/{id}", 1,
+                        test -> get("/items/" + test.items.get(0).getId()).header(USER_HEADER, test.owner.getId())),
+                endpoint("GET /bookings/{id}", 1,
+                        test -> get("/bookings/" + test.pastBooking.getId()).header(USER_HEADER, test.booker.getId())),
+                endpoint("GET /requests/{id}", 1,
+                        test -> get("/requests/" + test.requests.get(0).getId()).header(USER_HEADER, test.owner.getId()))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("conditionalEndpoints")
+    void conditionalGet_ShouldAnswerNotModifiedWithinStatementBudget(
+            String endpoint,
+            long budget,
+            Function<StatementCountRegressionTest, MockHttpServletRequestBuilder> request) throws Exception {
+        String etag = mvc.perform(request.apply(this))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mvc.perform(request.apply(this).header("If-None-Match", etag)).andExpect(status().isNotModified());
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= budget,
+                endpoint + " prepared " + statements + " statements while the budget is " + budget);
+    }
+
+    @Test
+    void importBookings_ShouldInsertInBatches() {
+        int rows = 150;
+        LocalDateTime start = LocalDateTime.now().minusYears(1);
+        List<BookingImportDto> bookings = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            bookings.add(new BookingImportDto(items.get(i % ITEM_COUNT).getId(), booker.getId(),
+                    start.plusDays(i), start.plusDays(i).plusHours(1), BookingStatus.APPROVED));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        bookingService.importBookings(bookings, owner.getId());
+
+        // Three lookups, an id block and an insert batch per 50 rows, one counter update per item.
+        long budget = 3 + 2 * (rows / 50) + ITEM_COUNT;
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= budget,
+                "Importing " + rows + " bookings prepared " + statements + " statements while the budget is " + budget);
+    }
+
+    private static Arguments endpoint(String name,
+                                      long budget,
+                                      Function<StatementCountRegressionTest, MockHttpServletRequestBuilder> request) {
+        return Arguments.of(name, budget, request);
+    }
+
+    private <T> T persist(T entity) {
+        entityManager.persist(entity);
+        return entity;
+    }
+}
@@ -8,21 +8,37 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingImportDto;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.dto.UserShortDto;
+import ru.practicum.shareit.user.service.UserService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,13 +57,17 @@ class BookingControllerTest {
     @Qualifier("bookingServiceImpl")
     private BookingService bookingService;
 
+    @MockBean
+    @Qualifier("userServiceImpl")
+    private UserService userService;
+
     private NewBookingDto newBookingDto;
     private BookingDto bookingDto;
 
     @BeforeEach
     void setUp() {
-        User booker = new User(1L, "Booker", "booker@email.com");
-        ItemDto itemDto = new ItemDto(1L, "Item", "Description", true, null, null, null, null, null);
+        UserShortDto booker = new UserShortDto(1L, "Booker");
+        ItemDto itemDto = new ItemDto(1L, "Item", "Description", true, null, null, null, null, null, null);
 
         newBookingDto = new NewBookingDto(
                 1L,
@@ -91,8 +111,28 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.status").value("APPROVED"));
     }
 
+    @Test
+    void confirmBookings_ShouldReturnResultPerBooking() throws Exception {
+        when(bookingService.confirmBookings(anyList(), anyLong()))
+                .thenReturn(List.of(
+                        new BookingApprovalResultDto(1L, BookingStatus.APPROVED, null),
+                        new BookingApprovalResultDto(2L, null, "Booking 2 not found")));
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new BookingApprovalDto(1L, true),
+                                new BookingApprovalDto(2L, false)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPROVED"))
+                .andExpect(jsonPath("$[1].error").value("Booking 2 not found"));
+    }
+
     @Test
     void getBooking_ShouldReturnOk() throws Exception {
+        when(bookingService.getBookingVersion(anyLong(), anyLong()))
+                .thenReturn(Optional.empty());
         when(bookingService.getBooking(anyLong(), anyLong()))
                 .thenReturn(bookingDto);
 
@@ -102,6 +142,35 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void getBooking_ShouldReturnNotModifiedWithoutLoadingWhenTagMatches() throws Exception {
+        when(bookingService.getBookingVersion(1L, 1L))
+                .thenReturn(Optional.of("0-1-0-0"));
+
+        mockMvc.perform(get("/bookings/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("If-None-Match", "\"0-1-0-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"0-1-0-0\""))
+                .andExpect(content().string(""));
+        verify(bookingService, never()).getBooking(anyLong(), anyLong());
+    }
+
+    @Test
+    void getBooking_ShouldReturnBookingWhenTagIsStale() throws Exception {
+        when(bookingService.getBookingVersion(1L, 1L))
+                .thenReturn(Optional.of("0-1-0-1"));
+        when(bookingService.getBooking(1L, 1L))
+                .thenReturn(bookingDto);
+
+        mockMvc.perform(get("/bookings/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("If-None-Match", "\"0-1-0-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0-1-0-1\""))
+                .andExpect(jsonPath("$.id").value(1L));
+    }
+
     @Test
     void getUserBookings_ShouldReturnOk() throws Exception {
         when(bookingService.getUserBookings(any(BookingState.class), anyLong()))
@@ -124,6 +193,93 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1L));
     }
 
+    @Test
+    void getUserBookings_WithSize_ShouldReturnPageAndNextCursor() throws Exception {
+        Window<BookingDto> page = Window.from(List.of(bookingDto),
+                index -> ScrollPosition.forward(Map.of("start", bookingDto.getStart(), "id", bookingDto.getId())),
+                true);
+        when(bookingService.getUserBookings(any(BookingState.class), anyLong(), isNull(), eq(1)))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/bookings?state=ALL&size=1")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id").value(1L));
+    }
+
+    @Test
+    void exportUserBookings_ShouldStreamOneJsonObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookingDto> sink = invocation.getArgument(1);
+            sink.accept(bookingDto);
+            sink.accept(bookingDto);
+            return null;
+        }).when(bookingService).exportUserBookings(eq(1L), any());
+
+        MvcResult result = mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(Duration.ofMinutes(10).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(bookingDto.getId(), objectMapper.readValue(lines[0], BookingDto.class).getId());
+    }
+
+    @Test
+    void exportUserBookings_WhenUserNotFound_ShouldReturnNotFound() throws Exception {
+        when(userService.getUser(anyLong())).thenThrow(new NotFoundException("User 1 not found"));
+
+        mockMvc.perform(get("/bookings/export")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void importBookings_ShouldReturnImportedCount() throws Exception {
+        List<BookingImportDto> bookings = List.of(new BookingImportDto(1L, 2L,
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), BookingStatus.APPROVED));
+        when(bookingService.importBookings(anyList(), eq(1L))).thenReturn(1);
+
+        mockMvc.perform(post("/bookings/import")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookings)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+
+    @Test
+    void getUserBookingCounts_ShouldReturnCountPerState() throws Exception {
+        when(bookingService.getUserBookingCounts(anyLong()))
+                .thenReturn(Map.of(BookingState.ALL, 3L, BookingState.WAITING, 1L));
+
+        mockMvc.perform(get("/bookings/counts")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ALL").value(3))
+                .andExpect(jsonPath("$.WAITING").value(1));
+    }
+
+    @Test
+    void getOwnerBookingCounts_ShouldReturnCountPerState() throws Exception {
+        when(bookingService.getOwnerBookingCounts(anyLong()))
+                .thenReturn(Map.of(BookingState.ALL, 2L));
+
+        mockMvc.perform(get("/bookings/owner/counts")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ALL").value(2));
+    }
+
     @Test
     void addBooking_WhenInvalidDates_ShouldReturnBadRequest() throws Exception {
         NewBookingDto invalidBooking = new NewBookingDto(
@@ -144,5 +300,4 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.description").exists());
     }
 
-
-}
\ No newline at end of file
+}
@@ -6,7 +6,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.JsonTest;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.dto.UserShortDto;
 
 import java.time.LocalDateTime;
 
@@ -20,8 +20,8 @@ class BookingDtoJsonTest {
 
     @Test
     void testSerializeBookingDto() throws Exception {
-        ItemDto itemDto = new ItemDto(1L, "Item", "Description", true, null, null, null, null, null);
-        User user = new User(1L, "User", "user@email.com");
+        ItemDto itemDto = new ItemDto(1L, "Item", "Description", true, null, null, null, null, null, null);
+        UserShortDto user = new UserShortDto(1L, "User");
         LocalDateTime start = LocalDateTime.of(2023, 1, 1, 10, 0);
         LocalDateTime end = LocalDateTime.of(2023, 1, 2, 10, 0);
 
@@ -31,6 +31,7 @@ class BookingDtoJsonTest {
 
         assertThat(json).contains("\"id\":1");
         assertThat(json).contains("\"status\":\"WAITING\"");
+        assertThat(json).contains("\"booker\":{\"id\":1,\"name\":\"User\"}");
         assertThat(json).containsPattern("\"start\":\"2023-01-01T10:00:00\"");
         assertThat(json).containsPattern("\"end\":\"2023-01-02T10:00:00\"");
     }
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExpiryJobTest {
+
+    @Mock
+    private BookingRepository bookingStorage;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private BookingExpiryJob expiryJob;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        expiryJob = new BookingExpiryJob(bookingStorage, new TransactionTemplate(transactionManager),
+                meterRegistry, 2, 3);
+    }
+
+    @Test
+    void expireWaitingBookings_ShouldCancelInChunksUntilNothingIsLeft() {
+        when(bookingStorage.findIdsByStatusAndStartBefore(eq(BookingStatus.WAITING), any(), eq(Limit.of(2))))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(bookingStorage.updateWaitingStatus(List.of(1L, 2L), BookingStatus.CANCELED)).thenReturn(2);
+        when(bookingStorage.updateWaitingStatus(List.of(3L), BookingStatus.CANCELED)).thenReturn(1);
+
+        expiryJob.expireWaitingBookings();
+
+        verify(transactionManager, times(3)).commit(any());
+        assertEquals(3.0, meterRegistry.get("shareit.bookings.expiry.rows").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("shareit.bookings.expiry.duration").timer().count());
+    }
+
+    @Test
+    void expireWaitingBookings_ShouldStopAfterMaxChunksPerRun() {
+        when(bookingStorage.findIdsByStatusAndStartBefore(eq(BookingStatus.WAITING), any(), eq(Limit.of(2))))
+                .thenReturn(List.of(1L, 2L));
+        when(bookingStorage.updateWaitingStatus(List.of(1L, 2L), BookingStatus.CANCELED)).thenReturn(2);
+
+        expiryJob.expireWaitingBookings();
+
+        verify(bookingStorage, times(3)).updateWaitingStatus(any(), eq(BookingStatus.CANCELED));
+        assertEquals(6.0, meterRegistry.get("shareit.bookings.expiry.rows").summary().totalAmount());
+    }
+}
@@ -1,25 +1,40 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingImportDto;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.exceptions.BadRequestException;
+import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -39,6 +54,9 @@ class BookingServiceIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private User owner;
     private User booker;
     private Item item;
@@ -74,6 +92,29 @@ class BookingServiceIntegrationTest {
         assertEquals(result.getId(), savedBooking.getId());
     }
 
+    @Test
+    void getBookingVersion_ShouldChangeWithEmbeddedItemAndUsers() {
+        Long bookingId = bookingService.addBooking(newBookingDto, booker.getId()).getId();
+        String initial = bookingVersion(bookingId, booker.getId());
+
+        item.setName("Renamed item");
+        String itemRenamed = bookingVersion(bookingId, owner.getId());
+        booker.setName("Renamed booker");
+        String bookerRenamed = bookingVersion(bookingId, booker.getId());
+
+        assertNotEquals(initial, itemRenamed);
+        assertNotEquals(itemRenamed, bookerRenamed);
+        assertEquals(bookerRenamed, bookingVersion(bookingId, owner.getId()));
+    }
+
+    @Test
+    void getBookingVersion_WhenUserIsNeitherBookerNorOwner_ShouldBeEmpty() {
+        Long bookingId = bookingService.addBooking(newBookingDto, booker.getId()).getId();
+        User stranger = userRepository.save(new User(null, "Stranger", "stranger@email.com"));
+
+        assertTrue(bookingService.getBookingVersion(bookingId, stranger.getId()).isEmpty());
+    }
+
     @Test
     void addBooking_WhenItemNotAvailable_ShouldThrowException() {
         item.setAvailable(false);
@@ -83,6 +124,73 @@ class BookingServiceIntegrationTest {
                 () -> bookingService.addBooking(newBookingDto, booker.getId()));
     }
 
+    @Test
+    void addBooking_WhenOverlapsExistingBooking_ShouldThrowException() {
+        bookingService.addBooking(newBookingDto, booker.getId());
+        NewBookingDto overlapping = new NewBookingDto(
+                item.getId(),
+                newBookingDto.getStart().plusHours(12),
+                newBookingDto.getEnd().plusHours(12)
+        );
+
+        assertThrows(BadRequestException.class,
+                () -> bookingService.addBooking(overlapping, booker.getId()));
+    }
+
+    @Test
+    void addBooking_WhenOverlapsRejectedBooking_ShouldSaveBooking() {
+        BookingDto rejected = bookingService.addBooking(newBookingDto, booker.getId());
+        bookingService.confirmBooking(rejected.getId(), owner.getId(), false);
+
+        BookingDto result = bookingService.addBooking(newBookingDto, booker.getId());
+
+        assertEquals(BookingStatus.WAITING, result.getStatus());
+    }
+
+    @Test
+    void addBooking_WhenAdjacentToExistingBooking_ShouldSaveBooking() {
+        LocalDateTime start = newBookingDto.getStart().truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime end = newBookingDto.getEnd().truncatedTo(ChronoUnit.SECONDS);
+        bookingService.addBooking(new NewBookingDto(item.getId(), start, end), booker.getId());
+        NewBookingDto adjacent = new NewBookingDto(item.getId(), end, end.plusDays(1));
+
+        BookingDto result = bookingService.addBooking(adjacent, booker.getId());
+
+        assertNotNull(result.getId());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void addBooking_WhenConcurrentRequestsForSameSlot_ShouldSaveOnlyOne() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Boolean>> requests = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                requests.add(() -> {
+                    try {
+                        bookingService.addBooking(newBookingDto, booker.getId());
+                        return true;
+                    } catch (BadRequestException e) {
+                        return false;
+                    }
+                });
+            }
+            long saved = 0;
+            for (Future<Boolean> result : executor.invokeAll(requests)) {
+                if (result.get()) {
+                    saved++;
+                }
+            }
+
+            assertEquals(1, saved);
+            assertEquals(1, bookingRepository.findByBookerId(booker.getId(), Sort.unsorted()).size());
+        } finally {
+            executor.shutdown();
+            bookingRepository.deleteAll();
+            itemRepository.deleteAll();
+            userRepository.deleteAll();
+        }
+    }
 
     @Test
     void getBooking_ShouldReturnBooking() {
@@ -94,6 +202,18 @@ class BookingServiceIntegrationTest {
         assertEquals(booker.getId(), result.getBooker().getId());
     }
 
+    @Test
+    void confirmBooking_ShouldIncrementBookingVersion() {
+        Long bookingId = bookingService.addBooking(newBookingDto, booker.getId()).getId();
+        long before = bookingRepository.findById(bookingId).orElseThrow().getVersion();
+
+        bookingService.confirmBooking(bookingId, owner.getId(), true);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(bookingRepository.findById(bookingId).orElseThrow().getVersion() > before);
+    }
+
     @Test
     void getUserBookings_ShouldReturnUserBookings() {
         bookingService.addBooking(newBookingDto, booker.getId());
@@ -116,5 +236,224 @@ class BookingServiceIntegrationTest {
         assertEquals(owner.getId(), result.get(0).getItem().getOwner().getId());
     }
 
+    @Test
+    void getUserBookings_WithCursor_ShouldWalkAllPagesInStartOrder() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            NewBookingDto dto = new NewBookingDto(item.getId(),
+                    now.plusDays(10 + i * 2L),
+                    now.plusDays(11 + i * 2L));
+            expected.add(0, bookingService.addBooking(dto, booker.getId()).getId());
+        }
+
+        List<Long> result = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Window<BookingDto> page = bookingService.getUserBookings(BookingState.FUTURE, booker.getId(), cursor, 2);
+            page.forEach(booking -> result.add(booking.getId()));
+            cursor = KeysetCursor.next(page);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(expected, result);
+        assertEquals(3, pages);
+    }
 
-}
\ No newline at end of file
+    @Test
+    void exportUserBookings_ShouldStreamWholeHistoryInListOrder() {
+        for (int i = 0; i < 3; i++) {
+            bookingService.addBooking(new NewBookingDto(item.getId(),
+                    LocalDateTime.now().plusDays(10 + i * 2L),
+                    LocalDateTime.now().plusDays(11 + i * 2L)), booker.getId());
+        }
+        List<Long> expected = bookingService.getUserBookings(BookingState.ALL, booker.getId()).stream()
+                .map(BookingDto::getId)
+                .toList();
+
+        List<Long> result = new ArrayList<>();
+        bookingService.exportUserBookings(booker.getId(), booking -> result.add(booking.getId()));
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void getBookingsByOwner_WithCursor_ShouldReturnBoundedPage() {
+        bookingService.addBooking(newBookingDto, booker.getId());
+        bookingService.addBooking(new NewBookingDto(item.getId(),
+                LocalDateTime.now().plusDays(5), LocalDateTime.now().plusDays(6)), booker.getId());
+
+        Window<BookingDto> page = bookingService.getBookingsByOwner(BookingState.ALL, owner.getId(), null, 1);
+
+        assertEquals(1, page.size());
+        assertTrue(page.hasNext());
+        assertNotNull(KeysetCursor.next(page));
+    }
+
+    @Test
+    void getUserBookings_WithInvalidCursor_ShouldThrowException() {
+        assertThrows(BadRequestException.class,
+                () -> bookingService.getUserBookings(BookingState.ALL, booker.getId(), "not-a-cursor", 10));
+    }
+
+    @Test
+    void getBookingCounts_ShouldMatchStateFilteredListSizes() {
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.minusDays(5), now.minusDays(4), item, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.minusDays(1), now.plusHours(12), item, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), item, booker,
+                BookingStatus.REJECTED));
+        bookingService.addBooking(newBookingDto, booker.getId());
+
+        Map<BookingState, Long> bookerCounts = bookingService.getUserBookingCounts(booker.getId());
+        Map<BookingState, Long> ownerCounts = bookingService.getOwnerBookingCounts(owner.getId());
+
+        for (BookingState state : BookingState.values()) {
+            assertEquals(bookingService.getUserBookings(state, booker.getId()).size(), bookerCounts.get(state));
+            assertEquals(bookingService.getBookingsByOwner(state, owner.getId()).size(), ownerCounts.get(state));
+        }
+        assertEquals(4L, bookerCounts.get(BookingState.ALL));
+    }
+
+    @Test
+    void getOwnerBookingCounts_WhenNoBookings_ShouldReturnZeros() {
+        Map<BookingState, Long> counts = bookingService.getOwnerBookingCounts(owner.getId());
+
+        assertEquals(BookingState.values().length, counts.size());
+        counts.values().forEach(count -> assertEquals(0L, count));
+    }
+
+    @Test
+    void getOwnerBookingCounts_WhenUserHasNoItems_ShouldReturnZeros() {
+        Map<BookingState, Long> counts = bookingService.getOwnerBookingCounts(booker.getId());
+
+        assertEquals(BookingState.values().length, counts.size());
+        counts.values().forEach(count -> assertEquals(0L, count));
+    }
+
+    @Test
+    void confirmBookings_ShouldApplyValidDecisionsAndReportFailures() {
+        Long approvedId = bookingService.addBooking(newBookingDto, booker.getId()).getId();
+        Long rejectedId = bookingService.addBooking(new NewBookingDto(item.getId(),
+                LocalDateTime.now().plusDays(5), LocalDateTime.now().plusDays(6)), booker.getId()).getId();
+        Long decidedId = bookingService.addBooking(new NewBookingDto(item.getId(),
+                LocalDateTime.now().plusDays(8), LocalDateTime.now().plusDays(9)), booker.getId()).getId();
+        bookingService.confirmBooking(decidedId, owner.getId(), true);
+
+        List<BookingApprovalResultDto> results = bookingService.confirmBookings(List.of(
+                new BookingApprovalDto(approvedId, true),
+                new BookingApprovalDto(rejectedId, false),
+                new BookingApprovalDto(decidedId, false),
+                new BookingApprovalDto(-1L, true)
+        ), owner.getId());
+
+        assertEquals(4, results.size());
+        assertEquals(BookingStatus.APPROVED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals(BookingStatus.REJECTED, results.get(1).getStatus());
+        assertNotNull(results.get(2).getError());
+        assertNotNull(results.get(3).getError());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(approvedId).orElseThrow().getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingRepository.findById(rejectedId).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(decidedId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void importBookings_ShouldPersistAllRowsAcrossChunks() {
+        LocalDateTime start = LocalDateTime.now().minusYears(1);
+        List<BookingImportDto> bookings = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            bookings.add(new BookingImportDto(item.getId(), booker.getId(),
+                    start.plusDays(i), start.plusDays(i).plusHours(1), BookingStatus.APPROVED));
+        }
+
+        int imported = bookingService.importBookings(bookings, owner.getId());
+
+        assertEquals(120, imported);
+        assertEquals(120L, bookingService.getUserBookingCounts(booker.getId()).get(BookingState.PAST));
+    }
+
+    @Test
+    void addBooking_ShouldIncrementItemBookingsCount() {
+        bookingService.addBooking(newBookingDto, booker.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1L, itemRepository.findById(item.getId()).orElseThrow().getBookingsCount());
+    }
+
+    @Test
+    void importBookings_ShouldAddToItemBookingsCount() {
+        Item other = itemRepository.save(new Item(null, "Other", "Description", true, owner, null, null,
+                new ArrayList<>()));
+        LocalDateTime start = LocalDateTime.now().minusDays(10);
+        List<BookingImportDto> bookings = List.of(
+                new BookingImportDto(item.getId(), booker.getId(), start, start.plusHours(1), null),
+                new BookingImportDto(item.getId(), booker.getId(), start.plusDays(1), start.plusDays(1).plusHours(1),
+                        null),
+                new BookingImportDto(other.getId(), booker.getId(), start, start.plusHours(1), null));
+
+        bookingService.importBookings(bookings, owner.getId());
+        entityManager.clear();
+
+        assertEquals(2L, itemRepository.findById(item.getId()).orElseThrow().getBookingsCount());
+        assertEquals(1L, itemRepository.findById(other.getId()).orElseThrow().getBookingsCount());
+    }
+
+    @Test
+    void importBookings_WhenItemOfAnotherOwner_ShouldThrowException() {
+        List<BookingImportDto> bookings = List.of(new BookingImportDto(item.getId(), owner.getId(),
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), null));
+
+        assertThrows(BadRequestException.class, () -> bookingService.importBookings(bookings, booker.getId()));
+    }
+
+    @Test
+    void importBookings_WhenBookerNotFound_ShouldThrowException() {
+        List<BookingImportDto> bookings = List.of(new BookingImportDto(item.getId(), -1L,
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), null));
+
+        assertThrows(NotFoundException.class, () -> bookingService.importBookings(bookings, owner.getId()));
+    }
+
+    @Test
+    void importBookings_WhenIdMissing_ShouldThrowBeforeLookup() {
+        List<BookingImportDto> bookings = List.of(
+                new BookingImportDto(item.getId(), booker.getId(),
+                        LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), null),
+                new BookingImportDto(null, booker.getId(),
+                        LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), null));
+
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> bookingService.importBookings(bookings, owner.getId()));
+        assertTrue(exception.getMessage().startsWith("Booking #1"));
+    }
+
+    @Test
+    void importBookings_WhenOwnerBooksOwnItem_ShouldThrowException() {
+        List<BookingImportDto> bookings = List.of(new BookingImportDto(item.getId(), owner.getId(),
+                LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), null));
+
+        assertThrows(BadRequestException.class, () -> bookingService.importBookings(bookings, owner.getId()));
+        assertEquals(0L, bookingService.getOwnerBookingCounts(owner.getId()).get(BookingState.ALL));
+    }
+
+    @Test
+    void confirmBookings_WhenNotOwner_ShouldLeaveBookingsWaiting() {
+        Long bookingId = bookingService.addBooking(newBookingDto, booker.getId()).getId();
+
+        List<BookingApprovalResultDto> results = bookingService.confirmBookings(
+                List.of(new BookingApprovalDto(bookingId, true)), booker.getId());
+
+        assertNotNull(results.get(0).getError());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+    }
+
+    private String bookingVersion(Long bookingId, Long userId) {
+        entityManager.flush();
+        return bookingService.getBookingVersion(bookingId, userId).orElseThrow();
+    }
+}
@@ -1,24 +1,30 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingOwnership;
 import ru.practicum.shareit.booking.dto.NewBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.NotFoundException;
-import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.service.ItemNameIndex;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 
@@ -27,6 +33,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -43,7 +50,10 @@ class BookingServiceTest {
     private ItemRepository itemRepository;
 
     @Mock
-    private ItemServiceImpl itemService;
+    private ItemNameIndex nameIndex;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private BookingServiceImpl bookingService;
@@ -86,7 +96,7 @@ class BookingServiceTest {
     @Test
     void addBooking_ShouldSaveBooking() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         when(bookingStorage.save(any(Booking.class))).thenReturn(booking);
 
         BookingDto result = bookingService.addBooking(newBookingDto, 1L);
@@ -94,32 +104,53 @@ class BookingServiceTest {
         assertNotNull(result);
         assertEquals(1L, result.getId());
         verify(bookingStorage, times(1)).save(any(Booking.class));
+        assertEquals(1, meterRegistry.get("shareit.bookings.item.lock.wait").timer().count());
+        assertEquals(0, meterRegistry.get("shareit.bookings.item.lock.waiting").gauge().value());
     }
 
     @Test
     void addBooking_WhenItemNotAvailable_ShouldThrowException() {
         item.setAvailable(false);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
 
         assertThrows(BadRequestException.class, () -> bookingService.addBooking(newBookingDto, 1L));
     }
 
+    @Test
+    void addBooking_WhenItemAlreadyBooked_ShouldThrowException() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
+        when(bookingStorage.existsOverlapping(anyLong(), any(), any(), anyCollection())).thenReturn(true);
+
+        assertThrows(BadRequestException.class, () -> bookingService.addBooking(newBookingDto, 1L));
+        verify(bookingStorage, never()).save(any(Booking.class));
+    }
 
     @Test
     void confirmBooking_WhenApproved_ShouldUpdateStatus() {
         when(bookingStorage.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingStorage.existsByIdAndOwnerId(anyLong(), anyLong())).thenReturn(true);
+        when(bookingStorage.updateWaitingStatus(List.of(1L), BookingStatus.APPROVED)).thenReturn(1);
 
         BookingDto result = bookingService.confirmBooking(1L, 1L, true);
 
         assertEquals(BookingStatus.APPROVED, result.getStatus());
     }
 
+    @Test
+    void confirmBooking_WhenStatusChangedConcurrently_ShouldThrowBadRequest() {
+        when(bookingStorage.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingStorage.updateWaitingStatus(List.of(1L), BookingStatus.REJECTED)).thenReturn(0);
+
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> bookingService.confirmBooking(1L, 1L, false));
+
+        assertEquals("Booking 1 is no longer waiting for approval", exception.getMessage());
+    }
+
     @Test
     void confirmBooking_WhenNotOwner_ShouldThrowException() {
         when(bookingStorage.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingStorage.existsByIdAndOwnerId(anyLong(), anyLong())).thenReturn(false);
 
         assertThrows(BadRequestException.class, () -> bookingService.confirmBooking(1L, 2L, true));
     }
@@ -128,7 +159,6 @@ class BookingServiceTest {
     void confirmBooking_WhenStatusNotWaiting_ShouldThrowException() {
         booking.setStatus(BookingStatus.APPROVED);
         when(bookingStorage.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingStorage.existsByIdAndOwnerId(anyLong(), anyLong())).thenReturn(true);
 
         assertThrows(BadRequestException.class, () -> bookingService.confirmBooking(1L, 1L, true));
     }
@@ -136,7 +166,6 @@ class BookingServiceTest {
     @Test
     void getBooking_ShouldReturnBooking() {
         when(bookingStorage.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingStorage.isBookingOwnerOrBooker(anyLong(), anyLong())).thenReturn(true);
 
         BookingDto result = bookingService.getBooking(1L, 1L);
 
@@ -147,7 +176,6 @@ class BookingServiceTest {
     @Test
     void getBooking_WhenNotOwnerOrBooker_ShouldThrowException() {
         when(bookingStorage.findById(anyLong())).thenReturn(Optional.of(booking));
-        when(bookingStorage.isBookingOwnerOrBooker(anyLong(), anyLong())).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> bookingService.getBooking(1L, 2L));
     }
@@ -165,20 +193,9 @@ class BookingServiceTest {
 
     @Test
     void getBookingsByOwner_ShouldReturnBookings() {
-        Item testItem = Item.builder()
-                .id(1L)
-                .name("Test Item")
-                .description("Test Description")
-                .available(true)
-                .owner(user)
-                .request(null)
-                .bookings(Collections.emptyList())
-                .comments(Collections.emptyList())
-                .build();
-
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemService.getItems(anyLong())).thenReturn(List.of(testItem).stream().map(ItemMapper::toItemDto).toList());
-        when(bookingStorage.findByItemOwnerId(anyLong(), any(Sort.class))).thenReturn(List.of(booking));
+        when(itemRepository.findIdsByOwnerId(anyLong())).thenReturn(List.of(1L));
+        when(bookingStorage.findByItemIdIn(anyCollection(), any(Sort.class))).thenReturn(List.of(booking));
 
         List<BookingDto> result = (List<BookingDto>) bookingService.getBookingsByOwner(BookingState.ALL, 1L);
 
@@ -189,11 +206,45 @@ class BookingServiceTest {
     @Test
     void getBookingsByOwner_WhenNoItems_ShouldThrowException() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemService.getItems(anyLong())).thenReturn(Collections.emptyList());
+        when(itemRepository.findIdsByOwnerId(anyLong())).thenReturn(List.of());
 
         assertThrows(NotFoundException.class, () -> bookingService.getBookingsByOwner(BookingState.ALL, 1L));
     }
 
+    @Test
+    void confirmBookings_WhenBookingChangedBeforeUpdate_ShouldReportItSkipped() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingStorage.findOwnershipByIdIn(anyCollection()))
+                .thenReturn(List.of(ownership(1L, BookingStatus.WAITING)))
+                .thenReturn(List.of(ownership(1L, BookingStatus.CANCELED)));
+        when(bookingStorage.updateWaitingStatus(anyCollection(), eq(BookingStatus.APPROVED))).thenReturn(0);
+
+        List<BookingApprovalResultDto> results = bookingService.confirmBookings(
+                List.of(new BookingApprovalDto(1L, true)), user.getId());
+
+        assertEquals(BookingStatus.CANCELED, results.get(0).getStatus());
+        assertNotNull(results.get(0).getError());
+    }
+
+    private BookingOwnership ownership(Long bookingId, BookingStatus status) {
+        return new BookingOwnership() {
+            @Override
+            public Long getId() {
+                return bookingId;
+            }
+
+            @Override
+            public BookingStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return user.getId();
+            }
+        };
+    }
+
     private User createTestUser(Long id) {
         return new User(id, "User " + id, "user" + id + "@test.com");
     }
@@ -250,4 +301,14 @@ class BookingServiceTest {
                 () -> bookingService.getUserBookings(BookingState.from("UNKNOWN").orElseThrow(), user.getId()));
     }
 
+    @Test
+    void getBookingPages_WhenSizeOutOfRange_ShouldThrowBeforeQuerying() {
+        assertThrows(BadRequestException.class,
+                () -> bookingService.getUserBookings(BookingState.ALL, user.getId(), null, 0));
+        assertThrows(BadRequestException.class,
+                () -> bookingService.getBookingsByOwner(BookingState.ALL, user.getId(), null,
+                        KeysetCursor.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(userRepository, itemRepository, bookingStorage);
+    }
+
 }
\ No newline at end of file
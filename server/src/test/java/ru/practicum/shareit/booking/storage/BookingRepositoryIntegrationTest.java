@@ -5,18 +5,28 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class BookingRepositoryIntegrationTest {
 
     @Autowired
@@ -25,6 +35,9 @@ class BookingRepositoryIntegrationTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private User owner;
     private User booker;
     private Item item;
@@ -60,8 +73,8 @@ class BookingRepositoryIntegrationTest {
     }
 
     @Test
-    void findByItemOwnerId_ShouldReturnBookings() {
-        List<Booking> result = bookingRepository.findByItemOwnerId(owner.getId(),
+    void findByItemIdIn_ShouldReturnBookings() {
+        List<Booking> result = bookingRepository.findByItemIdIn(List.of(item.getId()),
                 Sort.by(Sort.Direction.DESC, "start"));
 
         assertFalse(result.isEmpty());
@@ -70,16 +83,118 @@ class BookingRepositoryIntegrationTest {
     }
 
     @Test
-    void existsByIdAndOwnerId_ShouldReturnTrue() {
-        boolean exists = bookingRepository.existsByIdAndOwnerId(booking.getId(), owner.getId());
+    void existsOverlapping_ShouldDetectIntersectingLiveBookings() {
+        List<BookingStatus> live = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        assertTrue(bookingRepository.existsOverlapping(item.getId(),
+                booking.getStart().minusHours(1), booking.getStart().plusHours(1), live));
+        assertFalse(bookingRepository.existsOverlapping(item.getId(),
+                booking.getEnd().plusHours(1), booking.getEnd().plusDays(1), live));
+        assertFalse(bookingRepository.existsOverlapping(item.getId(),
+                booking.getStart(), booking.getEnd(), List.of(BookingStatus.APPROVED)));
+    }
+
+    @Test
+    void findByBookerId_ShouldUseConstantNumberOfStatementsForAnyPageSize() {
+        long fewBookings = countStatementsForListing(2);
+        long manyBookings = countStatementsForListing(20);
+
+        assertEquals(fewBookings, manyBookings);
+    }
 
-        assertTrue(exists);
+    @Test
+    void timeStateQueries_ShouldPartitionAllBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int offset = -3; offset <= 3; offset++) {
+            entityManager.persist(new Booking(null, now.plusHours(offset * 10L), now.plusHours(offset * 10L + 15),
+                    item, booker, BookingStatus.APPROVED));
+        }
+        entityManager.flush();
+        Sort sort = Sort.by(Sort.Direction.DESC, "start");
+
+        assertPartition(bookingRepository.findByBookerId(booker.getId(), sort),
+                bookingRepository.findPastBookings(booker.getId(), now, sort),
+                bookingRepository.findCurrentBookings(booker.getId(), now, sort),
+                bookingRepository.findFutureBookings(booker.getId(), now, sort));
+        List<Long> itemIds = List.of(item.getId());
+        assertPartition(bookingRepository.findByItemIdIn(itemIds, sort),
+                bookingRepository.findPastByItemIds(itemIds, now, sort),
+                bookingRepository.findCurrentByItemIds(itemIds, now, sort),
+                bookingRepository.findFutureByItemIds(itemIds, now, sort));
     }
 
     @Test
-    void isBookingOwnerOrBooker_ShouldReturnTrue() {
-        boolean isOwnerOrBooker = bookingRepository.isBookingOwnerOrBooker(booking.getId(), owner.getId());
+    void findIdsByStatusAndStartBefore_ShouldReturnOldestStaleBookingsUpToLimit() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking oldest = entityManager.persist(new Booking(null, now.minusDays(3), now.plusDays(1),
+                item, booker, BookingStatus.WAITING));
+        Booking older = entityManager.persist(new Booking(null, now.minusDays(2), now.plusDays(1),
+                item, booker, BookingStatus.WAITING));
+        entityManager.persist(new Booking(null, now.minusDays(1), now.plusDays(1),
+                item, booker, BookingStatus.WAITING));
+        entityManager.persist(new Booking(null, now.minusDays(4), now.plusDays(1),
+                item, booker, BookingStatus.APPROVED));
+        entityManager.flush();
+
+        List<Long> result = bookingRepository.findIdsByStatusAndStartBefore(BookingStatus.WAITING, now, Limit.of(2));
 
-        assertTrue(isOwnerOrBooker);
+        assertEquals(List.of(oldest.getId(), older.getId()), result);
+    }
+
+    @Test
+    void saveAll_ShouldBatchInserts() {
+        LocalDateTime start = LocalDateTime.now().minusYears(1);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            bookings.add(new Booking(null, start.plusDays(i), start.plusDays(i).plusHours(1),
+                    item, booker, BookingStatus.APPROVED));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        bookingRepository.saveAll(bookings);
+        entityManager.flush();
+
+        assertTrue(statistics.getPrepareStatementCount() < 10);
+    }
+
+    private void assertPartition(List<Booking> all, List<Booking> past, List<Booking> current, List<Booking> future) {
+        List<Booking> union = new ArrayList<>(past);
+        union.addAll(current);
+        union.addAll(future);
+
+        assertFalse(past.isEmpty());
+        assertFalse(current.isEmpty());
+        assertEquals(all.size(), union.size());
+        assertEquals(new HashSet<>(all), new HashSet<>(union));
+    }
+
+    private long countStatementsForListing(int itemCount) {
+        User requestor = entityManager.persist(new User(null, "Requestor " + itemCount, itemCount + "@requestor.com"));
+        for (int i = 0; i < itemCount; i++) {
+            ItemRequest request = entityManager.persist(
+                    new ItemRequest(null, "Request " + i, requestor, LocalDateTime.now()));
+            User itemOwner = entityManager.persist(new User(null, "Owner " + i, itemCount + "-" + i + "@owner.com"));
+            Item bookedItem = entityManager.persist(
+                    new Item(null, "Item " + i, "Description", true, itemOwner, request, null, null));
+            entityManager.persist(new Comment(null, "Comment " + i, bookedItem, requestor, LocalDateTime.now()));
+            entityManager.persist(new Booking(null,
+                    LocalDateTime.now().minusDays(i + 2),
+                    LocalDateTime.now().minusDays(i + 1),
+                    bookedItem,
+                    booker,
+                    BookingStatus.APPROVED));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<BookingDto> result = bookingRepository.findByBookerId(booker.getId(), Sort.by(Sort.Direction.DESC, "start"))
+                .stream()
+                .map(BookingMapper::toBookingDto)
+                .toList();
+        assertFalse(result.isEmpty());
+        return statistics.getPrepareStatementCount();
     }
 }
@@ -8,6 +8,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.*;
@@ -16,6 +18,8 @@ import ru.practicum.shareit.item.service.ItemService;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
@@ -41,7 +45,7 @@ class ItemControllerTest {
 
     @BeforeEach
     void setUp() {
-        itemDto = new ItemDto(1L, "Item", "Description", true, null, null, null, null, null);
+        itemDto = new ItemDto(1L, "Item", "Description", true, null, null, null, null, null, null);
         newItemDto = new NewItemDto("Item", "Description", true, null);
         commentDto = new CommentDto(1L, "Comment", "Author", LocalDateTime.now());
     }
@@ -78,16 +82,61 @@ class ItemControllerTest {
     }
 
     @Test
-    void getItem_shouldReturnItem() throws Exception {
-        Mockito.when(itemService.getItem(anyLong()))
+    void getItem_shouldReturnItemTaggedWithVersion() throws Exception {
+        Mockito.when(itemService.getItemVersion(1L))
+                .thenReturn(Optional.of("1-0-0-0"));
+        Mockito.when(itemService.getItem(1L, "1-0-0-0"))
                 .thenReturn(itemDto);
 
         mvc.perform(get("/items/1")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0-0-0\""))
                 .andExpect(jsonPath("$.id", is(itemDto.getId()), Long.class));
     }
 
+    @Test
+    void getItem_shouldReturnNotModifiedWithoutLoadingWhenTagMatches() throws Exception {
+        Mockito.when(itemService.getItemVersion(1L))
+                .thenReturn(Optional.of("1-0-0-0"));
+
+        mvc.perform(get("/items/1")
+                        .header("If-None-Match", "\"1-0-0-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-0-0-0\""))
+                .andExpect(content().string(""));
+        Mockito.verify(itemService, Mockito.never()).getItem(anyLong(), anyString());
+    }
+
+    @Test
+    void getItem_shouldReturnItemWhenTagIsStale() throws Exception {
+        Mockito.when(itemService.getItemVersion(1L))
+                .thenReturn(Optional.of("1-1-0-0"));
+        Mockito.when(itemService.getItem(1L, "1-1-0-0"))
+                .thenReturn(itemDto);
+
+        mvc.perform(get("/items/1")
+                        .header("If-None-Match", "\"1-0-0-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-1-0-0\""))
+                .andExpect(jsonPath("$.id", is(itemDto.getId()), Long.class));
+    }
+
+    @Test
+    void getComments_shouldReturnPageAndNextCursor() throws Exception {
+        Window<CommentDto> page = Window.from(List.of(commentDto),
+                index -> ScrollPosition.forward(Map.of("created", commentDto.getCreated(), "id", commentDto.getId())),
+                true);
+        Mockito.when(itemService.getComments(1L, null, 1))
+                .thenReturn(page);
+
+        mvc.perform(get("/items/1/comments?size=1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].text", is(commentDto.getText())));
+    }
+
     @Test
     void getItems_shouldReturnUserItems() throws Exception {
         Mockito.when(itemService.getItems(anyLong()))
@@ -102,7 +151,7 @@ class ItemControllerTest {
 
     @Test
     void searchItems_shouldReturnMatchingItems() throws Exception {
-        Mockito.when(itemService.searchItems(anyString()))
+        Mockito.when(itemService.searchItems(anyString(), isNull(), isNull()))
                 .thenReturn(List.of(itemDto));
 
         mvc.perform(get("/items/search?text=test")
@@ -111,6 +160,67 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
     }
 
+    @Test
+    void getAvailability_shouldReturnFreeIntervals() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 10, 0);
+        LocalDateTime to = from.plusDays(1);
+        Mockito.when(itemService.getAvailability(1L, from, to))
+                .thenReturn(List.of(new FreeIntervalDto(from, to)));
+
+        mvc.perform(get("/items/1/availability?from={from}&to={to}", from, to)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].start", is("2030-01-01T10:00:00")))
+                .andExpect(jsonPath("$[0].end", is("2030-01-02T10:00:00")));
+    }
+
+    @Test
+    void searchItems_withWindow_shouldForwardWindowToService() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 5, 0, 0);
+        LocalDateTime to = from.plusDays(2);
+        Mockito.when(itemService.searchItems("drill", from, to))
+                .thenReturn(List.of(itemDto));
+
+        mvc.perform(get("/items/search?text=drill&from={from}&to={to}", from, to)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
+    }
+
+    @Test
+    void searchItems_withPaging_shouldReturnRankedPage() throws Exception {
+        Mockito.when(itemService.searchItems("drill", null, null, 10, 5))
+                .thenReturn(List.of(itemDto));
+
+        mvc.perform(get("/items/search?text=drill&offset=10&size=5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
+    }
+
+    @Test
+    void suggestNames_shouldReturnCompletions() throws Exception {
+        Mockito.when(itemService.suggestNames("dr", 10))
+                .thenReturn(List.of("Drill", "Driver"));
+
+        mvc.perform(get("/items/suggest?prefix=dr")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", is("Drill")))
+                .andExpect(jsonPath("$[1]", is("Driver")));
+    }
+
+    @Test
+    void searchItems_fuzzy_shouldUseFuzzySearch() throws Exception {
+        Mockito.when(itemService.searchItemsFuzzy("drlil", null, null))
+                .thenReturn(List.of(itemDto));
+
+        mvc.perform(get("/items/search?text=drlil&fuzzy=true")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
+    }
+
     @Test
     void addComment_shouldReturnCreatedComment() throws Exception {
         Mockito.when(itemService.addComment(anyLong(), anyLong(), any()))
@@ -4,7 +4,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.JsonTest;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.request.dto.ItemRequestShortDto;
+import ru.practicum.shareit.user.dto.UserShortDto;
 
 import java.time.LocalDate;
 
@@ -19,20 +20,24 @@ class ItemDtoJsonTest {
     @Test
     void testSerialize() throws Exception {
         ItemDto itemDto = new ItemDto(1L, "Item", "Description", true,
-                new User(1L, "Owner", "owner@email.com"),
-                null, null, LocalDate.now(), LocalDate.now().plusDays(1));
+                new UserShortDto(1L, "Owner"),
+                new ItemRequestShortDto(2L, "Need an item"), null, 4L, LocalDate.now(), LocalDate.now().plusDays(1));
 
         String json = objectMapper.writeValueAsString(itemDto);
 
         assertThat(json).contains("\"id\":1");
         assertThat(json).contains("\"name\":\"Item\"");
         assertThat(json).contains("\"available\":true");
+        assertThat(json).contains("\"owner\":{\"id\":1,\"name\":\"Owner\"}");
+        assertThat(json).contains("\"request\":{\"id\":2,\"description\":\"Need an item\"}");
+        assertThat(json).doesNotContain("email");
+        assertThat(json).contains("\"commentsCount\":4");
     }
 
     @Test
     void testDeserialize() throws Exception {
         String json = "{\"id\":1,\"name\":\"Item\",\"description\":\"Description\"," +
-                "\"available\":true,\"owner\":{\"id\":1,\"name\":\"Owner\",\"email\":\"owner@email.com\"}}";
+                "\"available\":true,\"owner\":{\"id\":1,\"name\":\"Owner\"}}";
 
         ItemDto itemDto = objectMapper.readValue(json, ItemDto.class);
 
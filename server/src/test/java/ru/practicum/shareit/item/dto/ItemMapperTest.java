@@ -5,6 +5,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.NewItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserShortDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.ArrayList;
@@ -26,7 +27,10 @@ class ItemMapperTest {
         assertEquals(item.getDescription(), dto.getDescription());
         assertEquals(item.getAvailable(), dto.getAvailable());
         assertEquals(item.getOwner().getId(), dto.getOwner().getId());
-        assertNotNull(dto.getComments());
+        assertEquals(item.getOwner().getName(), dto.getOwner().getName());
+        assertNull(dto.getRequest());
+        assertTrue(dto.getComments().isEmpty());
+        assertEquals(0L, dto.getCommentsCount());
     }
 
     @Test
@@ -45,7 +49,7 @@ class ItemMapperTest {
     @Test
     void toItemFromItemDto() {
         ItemDto itemDto = new ItemDto(1L, "Item", "Description", true,
-                new User(1L, "Owner", "owner@email.com"), null, null, null, null);
+                new UserShortDto(1L, "Owner"), null, null, null, null, null);
 
         Item item = ItemMapper.toItem(itemDto);
 
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BkTreeTest {
+
+    @Test
+    void distance_shouldCountInsertionsDeletionsAndSubstitutions() {
+        assertEquals(0, BkTree.distance("дрель", "дрель"));
+        assertEquals(1, BkTree.distance("дрел", "дрель"));
+        assertEquals(1, BkTree.distance("дрфль", "дрель"));
+        assertEquals(2, BkTree.distance("дрлеь", "дрель"));
+        assertEquals(3, BkTree.distance("", "saw"));
+    }
+
+    @Test
+    void search_shouldReturnTermsWithinDistance() {
+        BkTree tree = new BkTree();
+        tree.add("drill");
+        tree.add("grill");
+        tree.add("driller");
+        tree.add("hammer");
+        tree.add("drill");
+
+        Map<String, Integer> result = tree.search("dril", 1);
+
+        assertEquals(4, tree.size());
+        assertEquals(Map.of("drill", 1), result);
+        assertEquals(Map.of("drill", 1, "grill", 2), tree.search("drll", 2));
+    }
+}
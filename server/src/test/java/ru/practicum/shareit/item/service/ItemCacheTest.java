@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private ItemCache itemCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        itemCache = new ItemCache(100, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_shouldLoadOnceAndRecordHitRatioAndLoadTime() {
+        load(1L, "Drill");
+        load(1L, "Drill");
+
+        assertEquals(1, loads.get());
+        assertEquals(0.5, meterRegistry.get("shareit.items.cache.hit.ratio").gauge().value());
+        assertEquals(1, meterRegistry.get("shareit.items.cache.load").timer().count());
+    }
+
+    @Test
+    void invalidateAfterCommit_shouldReloadOnlyChangedItem() {
+        load(1L, "Drill");
+        load(2L, "Saw");
+
+        itemCache.invalidateAfterCommit(1L);
+        ItemDto reloaded = load(1L, "Cordless drill");
+        load(2L, "Saw");
+
+        assertEquals(3, loads.get());
+        assertEquals("Cordless drill", reloaded.getName());
+    }
+
+    @Test
+    void get_whenItemChangesDuringLoad_shouldNotStoreStaleItem() {
+        itemCache.get(1L, () -> {
+            ItemDto stale = item(1L, "Drill");
+            itemCache.invalidate(1L);
+            return stale;
+        });
+        ItemDto fresh = load(1L, "Cordless drill");
+
+        assertEquals(1, loads.get());
+        assertEquals("Cordless drill", fresh.getName());
+    }
+
+    @Test
+    void get_whenVersionDiffers_shouldReloadItem() {
+        itemCache.get(1L, "1-0-0-0", () -> item(1L, "Drill"));
+
+        ItemDto sameVersion = itemCache.get(1L, "1-0-0-0", () -> item(1L, "Unexpected"));
+        ItemDto newVersion = itemCache.get(1L, "2-0-0-0", () -> item(1L, "Cordless drill"));
+
+        assertEquals("Drill", sameVersion.getName());
+        assertEquals("Cordless drill", newVersion.getName());
+    }
+
+    @Test
+    void invalidateAll_shouldDropEveryItem() {
+        load(1L, "Drill");
+        load(2L, "Saw");
+
+        itemCache.invalidateAll();
+        load(1L, "Drill");
+        load(2L, "Saw");
+
+        assertEquals(4, loads.get());
+    }
+
+    private ItemDto load(Long id, String name) {
+        return itemCache.get(id, () -> {
+            loads.incrementAndGet();
+            return item(id, name);
+        });
+    }
+
+    private ItemDto item(Long id, String name) {
+        return new ItemDto(id, name, name, true, null, null, List.of(), 0L, null, null);
+    }
+}
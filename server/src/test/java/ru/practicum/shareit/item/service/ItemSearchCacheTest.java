@@ -0,0 +1,120 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private ItemSearchCache searchCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        searchCache = new ItemSearchCache(DataSize.ofMegabytes(1), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_shouldLoadOncePerCaseInsensitiveQuery() {
+        load("drill", item(1L, "Drill"));
+        load("DRILL", item(1L, "Drill"));
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", ItemSearchCache.NAME)
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void invalidateAfterCommit_shouldDropOnlyQueriesAffectedByItem() {
+        load("drill", item(1L, "Drill"));
+        load("saw", item(2L, "Saw"));
+        load("hammer");
+
+        searchCache.invalidateAfterCommit(3L, "Hammer", "Heavy hammer");
+        load("drill");
+        load("saw");
+        load("hammer");
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void invalidateAfterCommit_shouldDropQueriesListingItem() {
+        load("power", item(1L, "Power drill"));
+
+        searchCache.invalidateAfterCommit(1L, "Drill", "Cordless");
+        load("power");
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidateAfterCommit_shouldDropShortAndLongQueriesContainedInText() {
+        load("dr");
+        load("cordless dri");
+        load("drum");
+
+        searchCache.invalidateAfterCommit(3L, "Cordless drill");
+        load("dr");
+        load("cordless dri");
+        load("drum");
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void invalidateAfterCommit_shouldDropReloadedQueryAgain() {
+        load("drill", item(1L, "Drill"));
+        searchCache.invalidateAfterCommit(1L);
+        load("drill", item(1L, "Drill"));
+
+        searchCache.invalidateAfterCommit(1L);
+        load("drill");
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_whenItemInvalidatedDuringLoad_shouldNotStoreStaleResult() {
+        searchCache.get("saw", () -> {
+            searchCache.invalidateAfterCommit(1L);
+            return List.of(item(1L, "Saw"));
+        });
+        load("saw");
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_whenInvalidatedDuringLoad_shouldNotStoreStaleResult() {
+        searchCache.get("drill", () -> {
+            searchCache.invalidateAll();
+            return List.of(item(1L, "Drill"));
+        });
+        load("drill");
+
+        assertEquals(1, loads.get());
+    }
+
+    private void load(String text, ItemDto... items) {
+        searchCache.get(text, () -> {
+            loads.incrementAndGet();
+            return List.of(items);
+        });
+    }
+
+    private ItemDto item(Long id, String name) {
+        return new ItemDto(id, name, name, true, null, null, List.of(), 0L, null, null);
+    }
+}
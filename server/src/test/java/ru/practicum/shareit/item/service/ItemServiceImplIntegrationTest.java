@@ -1,24 +1,47 @@
 package ru.practicum.shareit.item.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Window;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
+import ru.practicum.shareit.item.dto.FreeIntervalDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.NewItemDto;
 import ru.practicum.shareit.item.dto.UpdateItemRequest;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.dto.UpdateUserRequest;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.UserRepository;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @Transactional
 class ItemServiceImplIntegrationTest {
 
@@ -28,11 +51,40 @@ class ItemServiceImplIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TermDictionary termDictionary;
+
+    @Autowired
+    private ItemNameIndex nameIndex;
+
+    @Autowired
+    private ItemSearchCache searchCache;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Long userId;
     private Long itemId;
 
     @BeforeEach
     void setUp() {
+        searchCache.invalidateAll();
+        itemCache.invalidateAll();
         UserDto userDto = new UserDto(null, "Test User", "test@email.com");
         UserDto savedUser = userService.addUser(userDto);
         userId = savedUser.getId();
@@ -81,6 +133,14 @@ class ItemServiceImplIntegrationTest {
         assertEquals("Test Item", result.getName());
     }
 
+    @Test
+    void getItem_shouldServeRepeatedLookupFromCache() {
+        ItemDto first = itemService.getItem(itemId);
+        ItemDto second = itemService.getItem(itemId);
+
+        assertSame(first, second);
+    }
+
     @Test
     void getItems_shouldReturnUserItems() {
         Collection<ItemDto> items = itemService.getItems(userId);
@@ -89,6 +149,54 @@ class ItemServiceImplIntegrationTest {
         assertEquals(1, items.size());
     }
 
+    @Test
+    void getItems_shouldFillLastAndNextApprovedBookingDates() {
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        saveBooking(item, booker, now.minusDays(10), now.minusDays(9), BookingStatus.APPROVED);
+        saveBooking(item, booker, now.minusDays(5), now.minusDays(4), BookingStatus.APPROVED);
+        saveBooking(item, booker, now.minusDays(2), now.minusDays(1), BookingStatus.REJECTED);
+        saveBooking(item, booker, now.plusDays(3), now.plusDays(4), BookingStatus.APPROVED);
+        saveBooking(item, booker, now.plusDays(1), now.plusDays(2), BookingStatus.WAITING);
+
+        ItemDto result = itemService.getItems(userId).iterator().next();
+
+        assertEquals(now.minusDays(4).toLocalDate(), result.getLastBooking());
+        assertEquals(now.plusDays(3).toLocalDate(), result.getNextBooking());
+    }
+
+    @Test
+    void getItems_shouldUseConstantNumberOfStatementsForAnyItemCount() {
+        long fewItems = countStatementsForListing(2);
+        long manyItems = countStatementsForListing(20);
+
+        assertEquals(fewItems, manyItems);
+    }
+
+    @Test
+    void getItems_shouldReturnCommentsOfEachItem() {
+        User author = userRepository.save(new User(null, "Author", "author@email.com"));
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        entityManager.persist(new Comment(null, "Great", item, author, LocalDateTime.now()));
+        item.setCommentsCount(1);
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemDto result = itemService.getItems(userId).iterator().next();
+
+        assertEquals(1, result.getComments().size());
+        assertEquals("Author", result.getComments().get(0).getAuthorName());
+    }
+
+    @Test
+    void getItems_whenNoBookings_shouldLeaveDatesEmpty() {
+        ItemDto result = itemService.getItems(userId).iterator().next();
+
+        assertNull(result.getLastBooking());
+        assertNull(result.getNextBooking());
+    }
+
     @Test
     void searchItems_shouldFindByText() {
         Collection<ItemDto> results = itemService.searchItems("test");
@@ -97,10 +205,305 @@ class ItemServiceImplIntegrationTest {
         assertEquals(1, results.size());
     }
 
+    @Test
+    void searchItems_shouldServeRepeatedQueryFromCache() {
+        Collection<ItemDto> first = itemService.searchItems("test");
+        Collection<ItemDto> second = itemService.searchItems("TEST");
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void searchItems_withOffset_shouldSkipHigherRankedItems() {
+        itemService.addItem(new NewItemDto("Test", "Exact name", true, null), userId);
+        itemService.addItem(new NewItemDto("Other", "Mentions test", true, null), userId);
+
+        List<String> firstPage = itemService.searchItems("test", null, null, 0, 2).stream()
+                .map(ItemDto::getName)
+                .toList();
+        List<String> secondPage = itemService.searchItems("test", null, null, 2, 2).stream()
+                .map(ItemDto::getName)
+                .toList();
+
+        assertEquals(List.of("Test", "Test Item"), firstPage);
+        assertEquals(List.of("Other"), secondPage);
+    }
+
+    @Test
+    void searchItems_withNegativeOffset_shouldThrowException() {
+        assertThrows(BadRequestException.class, () -> itemService.searchItems("test", null, null, -1, 10));
+    }
+
+    @Test
+    void searchItemsFuzzy_shouldFindItemsByMisspelledTerm() {
+        itemService.addItem(new NewItemDto("Дрель", "Ударная дрель", true, null), userId);
+        itemService.addItem(new NewItemDto("Перфоратор", "Тяжёлый", true, null), userId);
+        termDictionary.rebuild();
+
+        List<String> exact = itemService.searchItems("дрнль").stream().map(ItemDto::getName).toList();
+        List<String> fuzzy = itemService.searchItemsFuzzy("дрнль", null, null).stream()
+                .map(ItemDto::getName)
+                .toList();
+        List<String> longTerm = itemService.searchItemsFuzzy("пефоратр", null, null).stream()
+                .map(ItemDto::getName)
+                .toList();
+
+        assertTrue(exact.isEmpty());
+        assertEquals(List.of("Дрель"), fuzzy);
+        assertEquals(List.of("Перфоратор"), longTerm);
+    }
+
+    @Test
+    void searchItemsFuzzy_shouldNotQueryPerCorrectedTerm() {
+        itemService.addItem(new NewItemDto("Дрель", "Ударная дрель", true, null), userId);
+        itemService.addItem(new NewItemDto("Перфоратор", "Тяжёлый", true, null), userId);
+        itemService.addItem(new NewItemDto("Лестница", "Складная", true, null), userId);
+        termDictionary.rebuild();
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        int oneTerm = itemService.searchItemsFuzzy("дрнль", null, null).size();
+        long oneTermStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        List<String> threeTerms = itemService.searchItemsFuzzy("дрнль пефоратр лесница", null, null).stream()
+                .map(ItemDto::getName)
+                .toList();
+
+        assertEquals(1, oneTerm);
+        assertEquals(List.of("Дрель", "Лестница", "Перфоратор"), threeTerms.stream().sorted().toList());
+        assertEquals(oneTermStatements, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void searchItemsFuzzy_shouldSkipItemsNoLongerContainingCorrectedTerm() {
+        Long drillId = itemService.addItem(new NewItemDto("Дрель", "Ударная дрель", true, null), userId).getId();
+        termDictionary.rebuild();
+        itemService.editItem(new UpdateItemRequest("Пила", "Ручная", null), drillId, userId);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertTrue(itemService.searchItemsFuzzy("дрнль", null, null).isEmpty());
+    }
+
+    @Test
+    void suggestNames_shouldMatchWordPrefixesAndRankByBookings() {
+        Long popularId = itemService.addItem(new NewItemDto("Мини дрель", "Для гравировки", true, null), userId)
+                .getId();
+        itemRepository.addBookingsCount(popularId, 3);
+        itemService.addItem(new NewItemDto("Дрель", "Ударная", true, null), userId);
+        itemService.addItem(new NewItemDto("Дрельщик", "Недоступен", false, null), userId);
+        itemService.addItem(new NewItemDto("Андрель", "Не с начала слова", true, null), userId);
+        nameIndex.rebuild();
+
+        assertEquals(List.of("Мини дрель", "Дрель"), itemService.suggestNames("ДРЕ", 5));
+        assertEquals(List.of("Мини дрель"), itemService.suggestNames(" дре ", 1));
+        assertEquals(List.of(), itemService.suggestNames("пила", 5));
+    }
+
+    @Test
+    void editItem_shouldIncrementItemVersion() {
+        long before = itemVersion(itemId);
+
+        itemService.editItem(new UpdateItemRequest("Updated Name", null, null), itemId, userId);
+
+        assertTrue(itemVersion(itemId) > before);
+    }
+
+    @Test
+    void addComment_shouldIncrementItemVersion() {
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        saveBooking(item, booker, now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        long before = itemVersion(itemId);
+
+        itemService.addComment(itemId, booker.getId(), new CommentRequestDto("Great"));
+
+        assertTrue(itemVersion(itemId) > before);
+    }
+
+    @Test
+    void editItem_shouldIncrementRequestVersionOnlyWhenRenamed() {
+        User requestor = userRepository.save(new User(null, "Requestor", "requestor@email.com"));
+        ItemRequest request = entityManager.merge(new ItemRequest(null, "Need a saw", requestor, LocalDateTime.now()));
+        Long answerId = itemService.addItem(new NewItemDto("Saw", "Sharp", true, request.getId()), userId).getId();
+        long before = requestVersion(request.getId());
+
+        itemService.editItem(new UpdateItemRequest("Saw", "Very sharp", false), answerId, userId);
+        long afterUnrelatedEdit = requestVersion(request.getId());
+        itemService.editItem(new UpdateItemRequest("Hand saw", null, null), answerId, userId);
+
+        assertEquals(before, afterUnrelatedEdit);
+        assertTrue(requestVersion(request.getId()) > before);
+    }
+
+    @Test
+    void getItemVersion_shouldChangeWhenOwnerOrCommentAuthorIsRenamed() {
+        addComments(1);
+        Long authorId = userRepository.findAll().stream()
+                .filter(user -> user.getEmail().equals("booker@email.com"))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+        String initial = itemVersionTag();
+
+        userService.editUser(new UpdateUserRequest(userId, "Renamed owner", null), userId);
+        String ownerRenamed = itemVersionTag();
+        userService.editUser(new UpdateUserRequest(authorId, "Renamed author", null), authorId);
+        String authorRenamed = itemVersionTag();
+
+        assertNotEquals(initial, ownerRenamed);
+        assertNotEquals(ownerRenamed, authorRenamed);
+        assertEquals(authorRenamed, itemVersionTag());
+        assertTrue(itemService.getItemVersion(itemId + 1000).isEmpty());
+    }
+
+    @Test
+    void addComment_shouldCountCommentsAndKeepOnlyLatestInItem() {
+        List<Long> commentIds = addComments(5);
+
+        ItemDto result = itemService.getItem(itemId);
+
+        assertEquals(5L, result.getCommentsCount());
+        assertEquals(List.of(commentIds.get(4), commentIds.get(3), commentIds.get(2)),
+                result.getComments().stream().map(CommentDto::getId).toList());
+    }
+
+    @Test
+    void getComments_shouldWalkAllPagesNewestFirst() {
+        List<Long> commentIds = addComments(5);
+
+        List<Long> result = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Window<CommentDto> page = itemService.getComments(itemId, cursor, 2);
+            page.forEach(comment -> result.add(comment.getId()));
+            cursor = KeysetCursor.next(page);
+            pages++;
+        } while (cursor != null);
+
+        Collections.reverse(commentIds);
+        assertEquals(commentIds, result);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void getComments_whenItemMissing_shouldThrowException() {
+        assertThrows(NotFoundException.class, () -> itemService.getComments(itemId + 100, null, 10));
+    }
+
     @Test
     void addComment_whenUserDidNotBookItem_shouldThrowException() {
         assertThrows(BadRequestException.class,
                 () -> itemService.addComment(itemId, userId,
                         new CommentRequestDto("Test comment")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAvailability_shouldMergeBlockingBookingsAndClipToWindow() {
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusDays(1);
+        saveBooking(item, booker, from.minusHours(2), from.plusHours(1), BookingStatus.APPROVED);
+        saveBooking(item, booker, from.plusHours(3), from.plusHours(6), BookingStatus.WAITING);
+        saveBooking(item, booker, from.plusHours(4), from.plusHours(5), BookingStatus.APPROVED);
+        saveBooking(item, booker, from.plusHours(6), from.plusHours(7), BookingStatus.APPROVED);
+        saveBooking(item, booker, from.plusHours(8), from.plusHours(9), BookingStatus.REJECTED);
+
+        List<FreeIntervalDto> result = itemService.getAvailability(itemId, from, from.plusHours(10));
+
+        assertEquals(List.of(
+                new FreeIntervalDto(from.plusHours(1), from.plusHours(3)),
+                new FreeIntervalDto(from.plusHours(7), from.plusHours(10))
+        ), result);
+    }
+
+    @Test
+    void getAvailability_whenWindowSpansYears_shouldReturnEveryGap() {
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        int bookingCount = 10_000;
+        List<Booking> bookings = new ArrayList<>(bookingCount);
+        for (int i = 0; i < bookingCount; i++) {
+            bookings.add(new Booking(null, from.plusHours(2L * i + 1), from.plusHours(2L * i + 2),
+                    item, booker, BookingStatus.APPROVED));
+        }
+        bookingRepository.saveAll(bookings);
+
+        List<FreeIntervalDto> result = itemService.getAvailability(itemId, from, from.plusHours(2L * bookingCount + 1));
+
+        assertEquals(bookingCount + 1, result.size());
+        assertEquals(new FreeIntervalDto(from, from.plusHours(1)), result.get(0));
+        assertEquals(new FreeIntervalDto(from.plusHours(2L * bookingCount), from.plusHours(2L * bookingCount + 1)),
+                result.get(bookingCount));
+    }
+
+    @Test
+    void getAvailability_whenWindowIsEmpty_shouldThrowException() {
+        LocalDateTime from = LocalDateTime.now();
+
+        assertThrows(BadRequestException.class, () -> itemService.getAvailability(itemId, from, from));
+    }
+
+    private long itemVersion(Long id) {
+        entityManager.flush();
+        entityManager.clear();
+        return itemRepository.findById(id).orElseThrow().getVersion();
+    }
+
+    private String itemVersionTag() {
+        entityManager.flush();
+        return itemService.getItemVersion(itemId).orElseThrow();
+    }
+
+    private long requestVersion(Long id) {
+        entityManager.flush();
+        entityManager.clear();
+        return entityManager.find(ItemRequest.class, id).getVersion();
+    }
+
+    private List<Long> addComments(int count) {
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        Item item = itemRepository.findById(itemId).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        saveBooking(item, booker, now.minusDays(2), now.minusDays(1), BookingStatus.APPROVED);
+        List<Long> commentIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            commentIds.add(itemService.addComment(itemId, booker.getId(), new CommentRequestDto("Comment " + i)).getId());
+        }
+        itemCache.invalidateAll();
+        return commentIds;
+    }
+
+    private long countStatementsForListing(int itemCount) {
+        User owner = userRepository.save(new User(null, "Owner " + itemCount, itemCount + "@owner.com"));
+        User booker = userRepository.save(new User(null, "Booker " + itemCount, itemCount + "@booker.com"));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < itemCount; i++) {
+            User author = userRepository.save(new User(null, "Author " + i, itemCount + "-" + i + "@author.com"));
+            ItemRequest request = entityManager.merge(new ItemRequest(null, "Request " + i, author, now));
+            Item item = itemRepository.save(
+                    new Item(null, "Item " + i, "Description", true, owner, request, null, null));
+            entityManager.persist(new Comment(null, "Comment " + i, item, author, now));
+            item.setCommentsCount(1);
+            saveBooking(item, booker, now.minusDays(i + 2), now.minusDays(i + 1), BookingStatus.APPROVED);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Collection<ItemDto> items = itemService.getItems(owner.getId());
+        assertEquals(itemCount, items.size());
+        items.forEach(item -> assertEquals(1, item.getComments().size()));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void saveBooking(Item item, User booker, LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        bookingRepository.save(new Booking(null, start, end, item, booker, status));
+    }
+}
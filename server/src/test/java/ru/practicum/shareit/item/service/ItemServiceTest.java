@@ -1,10 +1,14 @@
 package ru.practicum.shareit.item.service;
 
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
 import ru.practicum.shareit.booking.storage.BookingRepository;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
@@ -13,6 +17,7 @@ import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.CommentRepository;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.storage.UserRepository;
 
@@ -41,6 +46,18 @@ class ItemServiceTest {
     @Mock
     private CommentRepository commentRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ItemNameIndex nameIndex;
+
+    @Spy
+    private ItemSearchCache searchCache = new ItemSearchCache(DataSize.ofMegabytes(1), new SimpleMeterRegistry());
+
+    @Spy
+    private ItemCache itemCache = new ItemCache(100, new SimpleMeterRegistry());
+
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -75,6 +92,30 @@ class ItemServiceTest {
         assertEquals("User didn't book this item", exception.getMessage());
     }
 
+    @Test
+    void searchItems_WithOffset_ShouldPageInRepository() {
+        when(itemRepository.searchRanked("text", Integer.MAX_VALUE, 1)).thenReturn(List.of());
+
+        assertEquals(List.of(), itemService.searchItems("text", null, null, Integer.MAX_VALUE, 1));
+    }
+
+    @Test
+    void getComments_WhenSizeNotPositive_ShouldThrow() {
+        assertThrows(BadRequestException.class, () -> itemService.getComments(1L, null, 0));
+    }
+
+    @Test
+    void getComments_WhenSizeAboveMaximum_ShouldThrow() {
+        assertThrows(BadRequestException.class,
+                () -> itemService.getComments(1L, null, KeysetCursor.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void suggestNames_WhenSizeAboveMaximum_ShouldThrow() {
+        assertThrows(BadRequestException.class,
+                () -> itemService.suggestNames("dr", ItemNameIndex.MAX_SUGGESTIONS + 1));
+    }
+
     private User createTestUser(Long id) {
         return new User(id, "User " + id, "user" + id + "@test.com");
     }
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameTrieTest {
+
+    @Test
+    void complete_shouldMatchWordPrefixesAndRankByBookings() {
+        NameTrie trie = new NameTrie(20);
+        trie.add("Drill", 1);
+        trie.add("Mini drill", 3);
+        trie.add("Android", 5);
+        trie.add("Hammer drill", 1);
+
+        assertEquals(List.of("Mini drill", "Drill", "Hammer drill"), trie.complete("DR", 5));
+        assertEquals(List.of("Mini drill", "Drill"), trie.complete("dr", 2));
+        assertEquals(List.of("Mini drill"), trie.complete("mini d", 5));
+        assertEquals(List.of(), trie.complete("", 5));
+        assertEquals(List.of(), trie.complete("saw", 5));
+    }
+
+    @Test
+    void remove_shouldKeepNameWhileOtherItemsCarryIt() {
+        NameTrie trie = new NameTrie(20);
+        trie.add("Drill", 2);
+        trie.add("Drill", 1);
+        trie.add("Mini drill", 2);
+
+        trie.remove("Drill", 2);
+
+        assertEquals(List.of("Mini drill", "Drill"), trie.complete("dr", 5));
+        trie.remove("Drill", 1);
+        assertEquals(List.of("Mini drill"), trie.complete("dr", 5));
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    void addBookings_shouldReorderCompletions() {
+        NameTrie trie = new NameTrie(20);
+        trie.add("Drill", 0);
+        trie.add("Mini drill", 1);
+
+        trie.addBookings("Drill", 2);
+        trie.addBookings("Saw", 2);
+
+        assertEquals(List.of("Drill", "Mini drill"), trie.complete("dr", 5));
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void rankAll_shouldRankLoadedNamesUpToMaxCompletions() {
+        NameTrie trie = new NameTrie(2);
+        trie.load("Drill", 1);
+        trie.load("Mini drill", 3);
+        trie.load("Hammer drill", 2);
+
+        trie.rankAll();
+
+        assertEquals(List.of("Mini drill", "Hammer drill"), trie.complete("dr", 5));
+        assertEquals(List.of("Hammer drill"), trie.complete("ham", 5));
+    }
+}
@@ -5,11 +5,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -109,4 +112,33 @@ class ItemRepositoryIntegrationTest {
 
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void searchAvailable_shouldExcludeItemsWithOverlappingApprovedBookings() {
+        Item item3 = em.persist(new Item(null, "Дрель ударная", "Мощная", true, owner, null, null, null));
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(5);
+        LocalDateTime to = from.plusDays(2);
+        em.persist(new Booking(null, from.plusHours(1), from.plusHours(3), item1, requestor, BookingStatus.APPROVED));
+        em.persist(new Booking(null, from.plusHours(1), from.plusHours(3), item3, requestor, BookingStatus.WAITING));
+        em.persist(new Booking(null, to, to.plusDays(1), item3, requestor, BookingStatus.APPROVED));
+        em.flush();
+
+        List<Item> result = itemRepository.searchAvailable("дрель", from, to);
+
+        assertEquals(List.of(item3.getId()), result.stream().map(Item::getId).toList());
+    }
+
+    @Test
+    void searchRanked_shouldOrderByNameMatchAndPage() {
+        Item described = em.persist(new Item(null, "Перфоратор", "Почти как дрель", true, owner, null, null, null));
+        Item prefixed = em.persist(new Item(null, "Дрель-шуруповерт", "Компактная", true, owner, null, null, null));
+        Item contained = em.persist(new Item(null, "Мини дрель", "Для гравировки", true, owner, null, null, null));
+        em.flush();
+
+        List<Long> all = itemRepository.searchRanked("дрель", 0, 10).stream().map(Item::getId).toList();
+        List<Long> second = itemRepository.searchRanked("дрель", 2, 2).stream().map(Item::getId).toList();
+
+        assertEquals(List.of(item1.getId(), prefixed.getId(), contained.getId(), described.getId()), all);
+        assertEquals(all.subList(2, 4), second);
+    }
 }
@@ -12,16 +12,19 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.NewItemRequestDto;
 import ru.practicum.shareit.request.dto.ResponseItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.dto.UserShortDto;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -43,7 +46,7 @@ class ItemRequestControllerTest {
     void addItemRequest_shouldReturnCreatedRequest() throws Exception {
         NewItemRequestDto requestDto = new NewItemRequestDto("Need a drill");
         ItemRequestDto responseDto = new ItemRequestDto(1L, "Need a drill",
-                new User(1L, "John", "john@example.com"), LocalDateTime.now());
+                new UserShortDto(1L, "John"), LocalDateTime.now());
 
         when(itemRequestService.addItemRequest(any(NewItemRequestDto.class), anyLong()))
                 .thenReturn(responseDto);
@@ -63,7 +66,7 @@ class ItemRequestControllerTest {
     void getItemRequests_shouldReturnUserRequests() throws Exception {
         ResponseItemRequestDto responseDto = new ResponseItemRequestDto(
                 1L, "Need a drill",
-                new User(1L, "John", "john@example.com"),
+                new UserShortDto(1L, "John"),
                 LocalDateTime.now(),
                 Collections.emptyList());
 
@@ -81,7 +84,7 @@ class ItemRequestControllerTest {
     void getAllItemRequests_shouldReturnOtherUsersRequests() throws Exception {
         ResponseItemRequestDto responseDto = new ResponseItemRequestDto(
                 1L, "Need a drill",
-                new User(2L, "Alice", "alice@example.com"),
+                new UserShortDto(2L, "Alice"),
                 LocalDateTime.now(),
                 Collections.emptyList());
 
@@ -99,7 +102,7 @@ class ItemRequestControllerTest {
     void getItemRequest_shouldReturnRequestById() throws Exception {
         ResponseItemRequestDto responseDto = new ResponseItemRequestDto(
                 1L, "Need a drill",
-                new User(1L, "John", "john@example.com"),
+                new UserShortDto(1L, "John"),
                 LocalDateTime.now(),
                 Collections.emptyList());
 
@@ -112,4 +115,33 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.description", is("Need a drill")));
     }
+
+    @Test
+    void getItemRequest_shouldReturnNotModifiedWhenWeakTagMatches() throws Exception {
+        when(itemRequestService.getItemRequestVersion(1L))
+                .thenReturn(Optional.of("2-0"));
+
+        mvc.perform(get("/requests/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("If-None-Match", "W/\"2-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2-0\""));
+        verify(itemRequestService, never()).getItemRequest(anyLong());
+    }
+
+    @Test
+    void getItemRequest_shouldReturnRequestWhenTagIsStale() throws Exception {
+        when(itemRequestService.getItemRequestVersion(1L))
+                .thenReturn(Optional.of("2-1"));
+        when(itemRequestService.getItemRequest(1L))
+                .thenReturn(new ResponseItemRequestDto(1L, "Need a drill", new UserShortDto(1L, "Johnny"),
+                        LocalDateTime.of(2024, 1, 1, 12, 0), Collections.emptyList()));
+
+        mvc.perform(get("/requests/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .header("If-None-Match", "\"2-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2-1\""))
+                .andExpect(jsonPath("$.requestor.name", is("Johnny")));
+    }
 }
@@ -5,7 +5,7 @@ import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.JsonTest;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.dto.UserShortDto;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -41,20 +41,20 @@ class ItemRequestDtoJsonTest {
     @Test
     @SneakyThrows
     void itemRequestDtoSerializationTest() {
-        User user = new User(1L, "John", "john@example.com");
+        UserShortDto user = new UserShortDto(1L, "John");
         ItemRequestDto dto = new ItemRequestDto(1L, "Need a drill", user, LocalDateTime.now());
 
         String json = objectMapper.writeValueAsString(dto);
 
         assertThat(json).contains("\"id\":1");
         assertThat(json).contains("\"description\":\"Need a drill\"");
-        assertThat(json).contains("\"requestor\":{\"id\":1,\"name\":\"John\"");
+        assertThat(json).contains("\"requestor\":{\"id\":1,\"name\":\"John\"}");
     }
 
     @Test
     @SneakyThrows
     void responseItemRequestDtoSerializationTest() {
-        User user = new User(1L, "John", "john@example.com");
+        UserShortDto user = new UserShortDto(1L, "John");
         ResponseItemRequestDto dto = new ResponseItemRequestDto(
                 1L, "Need a drill", user, LocalDateTime.now(), Collections.emptyList());
 
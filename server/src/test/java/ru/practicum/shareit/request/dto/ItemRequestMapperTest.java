@@ -34,7 +34,7 @@ class ItemRequestMapperTest {
 
         assertEquals(request.getId(), dto.getId());
         assertEquals(request.getDescription(), dto.getDescription());
-        assertEquals(request.getRequestor(), dto.getRequestor());
+        assertEquals(request.getRequestor().getId(), dto.getRequestor().getId());
         assertEquals(request.getCreated(), dto.getCreated());
     }
 
@@ -46,7 +46,7 @@ class ItemRequestMapperTest {
 
         assertEquals(request.getId(), dto.getId());
         assertEquals(request.getDescription(), dto.getDescription());
-        assertEquals(request.getRequestor(), dto.getRequestor());
+        assertEquals(request.getRequestor().getId(), dto.getRequestor().getId());
         assertEquals(request.getCreated(), dto.getCreated());
         assertEquals(1, dto.getItems().size());
     }
@@ -59,7 +59,7 @@ class ItemRequestServiceImplTest {
 
         assertNotNull(result);
         assertEquals("Need a drill", result.getDescription());
-        assertEquals(user, result.getRequestor());
+        assertEquals(user.getId(), result.getRequestor().getId());
         verify(itemRequestStorage, times(1)).save(any(ItemRequest.class));
     }
 
@@ -7,6 +7,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.NotUniqueEmail;
+import ru.practicum.shareit.item.service.ItemCache;
+import ru.practicum.shareit.item.service.ItemSearchCache;
 import ru.practicum.shareit.user.dto.UpdateUserRequest;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
@@ -25,6 +27,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ItemSearchCache itemSearchCache;
+
+    @Mock
+    private ItemCache itemCache;
+
     @InjectMocks
     private UserServiceImpl userService;
 